@@ -1,5 +1,8 @@
 package com.literanusa;
 
+import com.literanusa.dao.CatalogSnapshotSync;
+import com.literanusa.dao.ChangeLogSync;
+import com.literanusa.dao.OverdueSweeper;
 import com.literanusa.view.LoginView;
 import com.literanusa.util.DatabaseConnection;
 import com.literanusa.view.SplashScreen;
@@ -13,13 +16,25 @@ public class Main {
             // Set Look and Feel
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
 
-            // Initialize database connection
-            DatabaseConnection.getInstance();
+            // The last catalog snapshot lets the dashboard paint without waiting on the database
+            CatalogSnapshotSync.getInstance().load();
 
             SwingUtilities.invokeLater(() -> {
                 // Show splash screen first
                 new SplashScreen();
             });
+
+            // Initialize database connection while the splash screen shows
+            DatabaseConnection.getInstance();
+
+            // Keep loan statuses current while the app runs
+            OverdueSweeper.getInstance().start();
+
+            // Pick up other clients' writes so cached books and loans don't go stale
+            ChangeLogSync.getInstance().start();
+
+            // Bring the snapshot up to date for the dashboard and the next startup
+            CatalogSnapshotSync.getInstance().start();
         } catch (Exception e) {
             e.printStackTrace();
         }
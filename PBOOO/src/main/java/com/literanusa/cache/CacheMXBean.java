@@ -0,0 +1,15 @@
+package com.literanusa.cache;
+
+/**
+ * JMX view of an in-process cache, readable at runtime from jconsole/VisualVM.
+ */
+public interface CacheMXBean {
+    int getSize();
+    int getMaxSize();
+    long getHits();
+    long getMisses();
+    long getEvictions();
+    long getExpirations();
+    long getInvalidations();
+    double getHitRate();
+}
@@ -0,0 +1,40 @@
+package com.literanusa.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process notifications of committed writes, so caches can drop or refresh exactly what a
+ * write touched. DAOs publish after commit; listeners run synchronously on the writing thread
+ * and should be quick. A failing listener is logged and doesn't affect the others.
+ */
+public class ChangeBus {
+    private static final ChangeBus instance = new ChangeBus();
+
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private ChangeBus() {}
+
+    public static ChangeBus getInstance() {
+        return instance;
+    }
+
+    public void subscribe(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Consumer<ChangeEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(ChangeEvent event) {
+        for (Consumer<ChangeEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
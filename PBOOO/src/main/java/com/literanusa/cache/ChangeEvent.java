@@ -0,0 +1,59 @@
+package com.literanusa.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A committed change to data that caches may hold, published on the {@link ChangeBus}.
+ */
+public final class ChangeEvent {
+    public enum Type {
+        /** New books; lists and searches over the catalog are out of date. */
+        BOOKS_ADDED,
+        /** Book details changed, possibly including fields lists are sorted by. */
+        BOOKS_UPDATED,
+        /** Only available_copies changed, because copies were borrowed or returned. */
+        AVAILABILITY_CHANGED,
+        /** Loans were borrowed, returned or marked overdue; the ids are the borrowers' user ids. */
+        LOANS_CHANGED
+    }
+
+    private final Type type;
+    private final Set<Integer> ids;
+    private final boolean remote;
+
+    public ChangeEvent(Type type, Collection<Integer> ids) {
+        this(type, ids, false);
+    }
+
+    public ChangeEvent(Type type, Collection<Integer> ids, boolean remote) {
+        this.type = type;
+        this.ids = Collections.unmodifiableSet(new LinkedHashSet<>(ids));
+        this.remote = remote;
+    }
+
+    public static ChangeEvent of(Type type, Integer... ids) {
+        Set<Integer> set = new LinkedHashSet<>();
+        Collections.addAll(set, ids);
+        return new ChangeEvent(type, set);
+    }
+
+    public Type getType() { return type; }
+
+    /**
+     * @return ids of the affected rows; empty when unknown, which means assume everything changed
+     */
+    public Set<Integer> getIds() { return ids; }
+
+    /**
+     * @return true if another client made the change and it arrived through the change log
+     */
+    public boolean isRemote() { return remote; }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent[" + type + ", ids=" + ids + (remote ? ", remote" : "") + "]";
+    }
+}
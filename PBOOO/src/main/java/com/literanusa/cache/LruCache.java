@@ -0,0 +1,190 @@
+package com.literanusa.cache;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Size- and age-bounded map for read-through caching.
+ *
+ * The least recently used entry is evicted once the cache is full, and an entry older than the
+ * TTL is treated as a miss. {@link #getOrLoad} runs the loader outside the lock; if the cache
+ * is invalidated or updated while a load is in flight, the loaded value is returned but not
+ * stored, so a slow read can't put back data a concurrent write just made stale.
+ */
+public class LruCache<K, V> implements CacheMXBean {
+    private static class CachedValue<V> {
+        final V value;
+        final long loadedAt;
+
+        CachedValue(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, CachedValue<V>> entries;
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param ttlMs how long an entry is served after loading; 0 means until evicted or invalidated
+     */
+    public LruCache(String name, int maxSize, long ttlMs) {
+        this.name = name;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.entries = new LinkedHashMap<K, CachedValue<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the cached value, or null if absent or expired
+     */
+    public synchronized V get(K key) {
+        CachedValue<V> entry = entries.get(key);
+        if (entry != null && isExpired(entry, System.nanoTime())) {
+            entries.remove(key);
+            expirations.incrementAndGet();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new CachedValue<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Returns the cached value, or loads and caches it. A null result is returned but not cached.
+     */
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        if (entries.remove(key) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+    }
+
+    /**
+     * Rewrites every live entry in place, keeping its original load time so the TTL still
+     * bounds how stale its other data can get. Returning null from the function drops the entry.
+     */
+    public synchronized void updateAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        generation++;
+        long now = System.nanoTime();
+        Iterator<Map.Entry<K, CachedValue<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, CachedValue<V>> mapEntry = it.next();
+            CachedValue<V> entry = mapEntry.getValue();
+            if (isExpired(entry, now)) {
+                it.remove();
+                expirations.incrementAndGet();
+                continue;
+            }
+            V updated = function.apply(mapEntry.getKey(), entry.value);
+            if (updated == null) {
+                it.remove();
+                invalidations.incrementAndGet();
+            } else {
+                mapEntry.setValue(new CachedValue<>(updated, entry.loadedAt));
+            }
+        }
+    }
+
+    private boolean isExpired(CachedValue<V> entry, long now) {
+        return ttlNanos > 0 && now - entry.loadedAt >= ttlNanos;
+    }
+
+    /**
+     * Publishes the counters over JMX as com.literanusa:type=Cache,name=&lt;name&gt;.
+     */
+    public LruCache<K, V> registerMBean() {
+        registerMBean(this, name);
+        return this;
+    }
+
+    static void registerMBean(Object mbean, String name) {
+        try {
+            ObjectName objectName = new ObjectName("com.literanusa:type=Cache,name=" + name);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not register cache MBean: " + e.getMessage());
+        }
+    }
+
+    public String getName() { return name; }
+    @Override public synchronized int getSize() { return entries.size(); }
+    @Override public int getMaxSize() { return maxSize; }
+    @Override public long getHits() { return hits.get(); }
+    @Override public long getMisses() { return misses.get(); }
+    @Override public long getEvictions() { return evictions.get(); }
+    @Override public long getExpirations() { return expirations.get(); }
+    @Override public long getInvalidations() { return invalidations.get(); }
+
+    @Override
+    public double getHitRate() {
+        long lookups = hits.get() + misses.get();
+        return lookups == 0 ? 0.0 : (double) hits.get() / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LruCache[%s, size=%d/%d, hits=%d, misses=%d, hitRate=%.2f, evictions=%d, " +
+                        "expirations=%d, invalidations=%d]", name, getSize(), maxSize, hits.get(), misses.get(),
+                getHitRate(), evictions.get(), expirations.get(), invalidations.get());
+    }
+}
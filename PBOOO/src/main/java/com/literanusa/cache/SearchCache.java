@@ -0,0 +1,165 @@
+package com.literanusa.cache;
+
+import java.text.Normalizer;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * LRU cache of search results keyed by the normalized query and its filters.
+ *
+ * Each entry remembers the catalog version it was computed at. Any catalog change bumps
+ * the version, so every older entry stops matching at once without walking the cache; stale
+ * entries are overwritten or evicted as usual.
+ */
+public class SearchCache<V> implements SearchCacheMXBean {
+    public enum QueryClass {
+        /** Looks like an ISBN. */
+        ISBN,
+        /** One or two characters, typically a search-as-you-type prefix. */
+        SHORT,
+        /** A single word, e.g. an author's surname or a genre. */
+        WORD,
+        /** Several words, e.g. a title. */
+        PHRASE
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long catalogVersion;
+
+        Entry(V value, long catalogVersion) {
+            this.value = value;
+            this.catalogVersion = catalogVersion;
+        }
+    }
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern ISBN_LIKE = Pattern.compile("\\d{9,12}[\\dx]");
+
+    private final String name;
+    private final LruCache<String, Entry<V>> entries;
+    private final LongSupplier catalogVersion;
+
+    private final Map<QueryClass, AtomicLong> hits = new EnumMap<>(QueryClass.class);
+    private final Map<QueryClass, AtomicLong> misses = new EnumMap<>(QueryClass.class);
+    private final AtomicLong staleMisses = new AtomicLong();
+
+    public SearchCache(String name, int maxSize, long ttlMs, LongSupplier catalogVersion) {
+        this.name = name;
+        this.entries = new LruCache<>(name, maxSize, ttlMs);
+        this.catalogVersion = catalogVersion;
+        for (QueryClass queryClass : QueryClass.values()) {
+            hits.put(queryClass, new AtomicLong());
+            misses.put(queryClass, new AtomicLong());
+        }
+    }
+
+    /**
+     * Case, accents' composed forms, and surrounding or repeated whitespace don't change a search.
+     */
+    public static String normalize(String query) {
+        String normalized = Normalizer.normalize(query == null ? "" : query, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(normalized.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    public static QueryClass classify(String normalizedQuery) {
+        String compact = normalizedQuery.replace("-", "").replace(" ", "");
+        if (compact.length() >= 10 && compact.length() <= 13 && ISBN_LIKE.matcher(compact).matches()) {
+            return QueryClass.ISBN;
+        }
+        if (normalizedQuery.length() < 3) {
+            return QueryClass.SHORT;
+        }
+        return normalizedQuery.indexOf(' ') < 0 ? QueryClass.WORD : QueryClass.PHRASE;
+    }
+
+    /**
+     * @param filters anything besides the query text that changes the result, e.g. a limit
+     * @param search runs the search for the normalized query; a null result isn't cached
+     */
+    public V get(String query, String filters, Function<String, V> search) {
+        String normalized = normalize(query);
+        QueryClass queryClass = classify(normalized);
+        String key = normalized + '\u0000' + filters;
+        long version = catalogVersion.getAsLong();
+
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.catalogVersion == version) {
+            hits.get(queryClass).incrementAndGet();
+            return entry.value;
+        }
+        if (entry != null) {
+            staleMisses.incrementAndGet();
+        }
+        misses.get(queryClass).incrementAndGet();
+
+        V value = search.apply(normalized);
+        // A change committed during the search may or may not be in the result, so don't keep it
+        if (value != null && catalogVersion.getAsLong() == version) {
+            entries.put(key, new Entry<>(value, version));
+        }
+        return value;
+    }
+
+    /**
+     * Publishes the counters over JMX as com.literanusa:type=Cache,name=&lt;name&gt;.
+     */
+    public SearchCache<V> registerMBean() {
+        LruCache.registerMBean(this, name);
+        return this;
+    }
+
+    @Override public int getSize() { return entries.getSize(); }
+    @Override public int getMaxSize() { return entries.getMaxSize(); }
+    @Override public long getStaleMisses() { return staleMisses.get(); }
+
+    @Override
+    public long getHits() {
+        return hits.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        return hitRate(getHits(), getMisses());
+    }
+
+    @Override
+    public Map<String, Double> getHitRateByQueryClass() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (QueryClass queryClass : QueryClass.values()) {
+            rates.put(queryClass.name(), hitRate(hits.get(queryClass).get(), misses.get(queryClass).get()));
+        }
+        return rates;
+    }
+
+    public long getHits(QueryClass queryClass) { return hits.get(queryClass).get(); }
+    public long getMisses(QueryClass queryClass) { return misses.get(queryClass).get(); }
+
+    private static double hitRate(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SearchCache[").append(name)
+                .append(", size=").append(getSize()).append('/').append(getMaxSize())
+                .append(", staleMisses=").append(staleMisses.get());
+        for (QueryClass queryClass : QueryClass.values()) {
+            sb.append(", ").append(queryClass).append('=').append(hits.get(queryClass).get())
+                    .append('/').append(hits.get(queryClass).get() + misses.get(queryClass).get());
+        }
+        return sb.append(']').toString();
+    }
+}
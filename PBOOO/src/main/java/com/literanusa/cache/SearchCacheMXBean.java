@@ -0,0 +1,16 @@
+package com.literanusa.cache;
+
+import java.util.Map;
+
+/**
+ * JMX view of a {@link SearchCache}, with hit rates broken down by kind of query.
+ */
+public interface SearchCacheMXBean {
+    int getSize();
+    int getMaxSize();
+    long getHits();
+    long getMisses();
+    long getStaleMisses();
+    double getHitRate();
+    Map<String, Double> getHitRateByQueryClass();
+}
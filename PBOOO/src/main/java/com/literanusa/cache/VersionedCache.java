@@ -0,0 +1,147 @@
+package com.literanusa.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Near cache for rows that carry a version number bumped on every write.
+ *
+ * An entry is served without any database access until it is {@code maxStalenessMs} old.
+ * After that, the next read asks only for the row's current version: if it is unchanged the
+ * entry is trusted for another period, otherwise the row is reloaded. Changes made by other
+ * processes are therefore seen within the staleness bound. Local writes should also
+ * {@link #invalidate} so they are seen at once.
+ */
+public class VersionedCache<K, V> implements VersionedCacheMXBean {
+    /**
+     * A loaded value and the version it was read at.
+     */
+    public static final class Versioned<V> {
+        private final V value;
+        private final long version;
+
+        public Versioned(V value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+
+        public V getValue() { return value; }
+        public long getVersion() { return version; }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long version;
+        volatile long validatedAt;
+
+        Entry(V value, long version, long validatedAt) {
+            this.value = value;
+            this.version = version;
+            this.validatedAt = validatedAt;
+        }
+    }
+
+    private final String name;
+    private final LruCache<K, Entry<V>> entries;
+    private final long maxStalenessNanos;
+
+    private final AtomicLong freshHits = new AtomicLong();
+    private final AtomicLong revalidatedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleDetected = new AtomicLong();
+    private final AtomicLong totalServedAgeNanos = new AtomicLong();
+    private final AtomicLong maxServedAgeNanos = new AtomicLong();
+
+    /**
+     * @param ttlMs hard limit on an entry's life regardless of version checks; 0 means none
+     */
+    public VersionedCache(String name, int maxSize, long maxStalenessMs, long ttlMs) {
+        this.name = name;
+        this.entries = new LruCache<>(name, maxSize, ttlMs);
+        this.maxStalenessNanos = maxStalenessMs * 1_000_000L;
+    }
+
+    /**
+     * @param loader reads the value with its version; null if absent or the read failed, which isn't cached
+     * @param versionCheck reads just the current version; null if the row is gone or the read failed
+     */
+    public V get(K key, Function<? super K, Versioned<V>> loader, Function<? super K, Long> versionCheck) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            long age = System.nanoTime() - entry.validatedAt;
+            if (age < maxStalenessNanos) {
+                freshHits.incrementAndGet();
+                recordServedAge(age);
+                return entry.value;
+            }
+            Long current = versionCheck.apply(key);
+            if (current != null && current == entry.version) {
+                entry.validatedAt = System.nanoTime();
+                revalidatedHits.incrementAndGet();
+                recordServedAge(0);
+                return entry.value;
+            }
+            staleDetected.incrementAndGet();
+            entries.invalidate(key);
+        }
+
+        misses.incrementAndGet();
+        Entry<V> loaded = entries.getOrLoad(key, k -> {
+            Versioned<V> versioned = loader.apply(k);
+            return versioned != null ? new Entry<>(versioned.value, versioned.version, System.nanoTime()) : null;
+        });
+        return loaded != null ? loaded.value : null;
+    }
+
+    private void recordServedAge(long ageNanos) {
+        totalServedAgeNanos.addAndGet(ageNanos);
+        maxServedAgeNanos.accumulateAndGet(ageNanos, Math::max);
+    }
+
+    public void invalidate(K key) {
+        entries.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * Publishes the counters over JMX as com.literanusa:type=Cache,name=&lt;name&gt;.
+     */
+    public VersionedCache<K, V> registerMBean() {
+        LruCache.registerMBean(this, name);
+        return this;
+    }
+
+    @Override public int getSize() { return entries.getSize(); }
+    @Override public int getMaxSize() { return entries.getMaxSize(); }
+    @Override public long getFreshHits() { return freshHits.get(); }
+    @Override public long getRevalidatedHits() { return revalidatedHits.get(); }
+    @Override public long getMisses() { return misses.get(); }
+    @Override public long getStaleDetected() { return staleDetected.get(); }
+    @Override public long getEvictions() { return entries.getEvictions(); }
+    @Override public long getMaxStalenessMillis() { return maxStalenessNanos / 1_000_000L; }
+    @Override public double getMaxServedAgeMillis() { return maxServedAgeNanos.get() / 1_000_000.0; }
+
+    @Override
+    public double getHitRate() {
+        long hits = freshHits.get() + revalidatedHits.get();
+        long lookups = hits + misses.get();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public double getAverageServedAgeMillis() {
+        long served = freshHits.get() + revalidatedHits.get();
+        return served == 0 ? 0.0 : totalServedAgeNanos.get() / 1_000_000.0 / served;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VersionedCache[%s, size=%d/%d, freshHits=%d, revalidatedHits=%d, misses=%d, " +
+                        "staleDetected=%d, hitRate=%.2f, maxServedAge=%.1fms]", name, getSize(), getMaxSize(),
+                freshHits.get(), revalidatedHits.get(), misses.get(), staleDetected.get(), getHitRate(),
+                getMaxServedAgeMillis());
+    }
+}
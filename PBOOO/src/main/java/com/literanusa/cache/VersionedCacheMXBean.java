@@ -0,0 +1,19 @@
+package com.literanusa.cache;
+
+/**
+ * JMX view of a {@link VersionedCache}: how often entries are served as-is, how often they
+ * needed a version check, and how old the served data was.
+ */
+public interface VersionedCacheMXBean {
+    int getSize();
+    int getMaxSize();
+    long getFreshHits();
+    long getRevalidatedHits();
+    long getMisses();
+    long getStaleDetected();
+    long getEvictions();
+    double getHitRate();
+    long getMaxStalenessMillis();
+    double getMaxServedAgeMillis();
+    double getAverageServedAgeMillis();
+}
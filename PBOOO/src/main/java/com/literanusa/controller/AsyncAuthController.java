@@ -0,0 +1,46 @@
+package com.literanusa.controller;
+
+import com.literanusa.model.User;
+import com.literanusa.util.AsyncExecutor;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link AuthController} for use from Swing event handlers.
+ */
+public class AsyncAuthController {
+    private final AuthController authController;
+    private final AsyncExecutor executor;
+
+    public AsyncAuthController() {
+        this(new AuthController(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncAuthController(AuthController authController, AsyncExecutor executor) {
+        this.authController = authController;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<User> login(String username, String password) {
+        return executor.submit(() -> authController.login(username, password));
+    }
+
+    public CompletableFuture<Boolean> register(String username, String password, String email, String fullName) {
+        return executor.submitWrite(() -> authController.register(username, password, email, fullName));
+    }
+
+    public CompletableFuture<Boolean> updateProfile(User user) {
+        return executor.submitWrite(() -> authController.updateProfile(user));
+    }
+
+    public CompletableFuture<Boolean> changePassword(int userId, String newPassword) {
+        return executor.submitWrite(() -> authController.changePassword(userId, newPassword));
+    }
+
+    public CompletableFuture<Boolean> updateProfilePicture(int userId, String profilePicture) {
+        return executor.submitWrite(() -> authController.updateProfilePicture(userId, profilePicture));
+    }
+
+    public CompletableFuture<User> getUserById(int id) {
+        return executor.submit(() -> authController.getUserById(id));
+    }
+}
@@ -0,0 +1,49 @@
+package com.literanusa.controller;
+
+import com.literanusa.dao.BookDAO;
+import com.literanusa.dao.Page;
+import com.literanusa.model.Book;
+import com.literanusa.util.AsyncExecutor;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link BookController} for use from Swing event handlers.
+ */
+public class AsyncBookController {
+    private final BookController bookController;
+    private final AsyncExecutor executor;
+
+    public AsyncBookController() {
+        this(new BookController(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncBookController(BookController bookController, AsyncExecutor executor) {
+        this.bookController = bookController;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<List<Book>> getAllBooks() {
+        return executor.submit(bookController::getAllBooks);
+    }
+
+    public CompletableFuture<Page<Book>> getBooksPage(BookDAO.SortOrder order, Book after, int pageSize) {
+        return executor.submit(() -> bookController.getBooksPage(order, after, pageSize));
+    }
+
+    public CompletableFuture<List<Book>> searchBooks(String keyword) {
+        return executor.submit(() -> bookController.searchBooks(keyword));
+    }
+
+    public CompletableFuture<Boolean> addBook(Book book) {
+        return executor.submitWrite(() -> bookController.addBook(book));
+    }
+
+    public CompletableFuture<Boolean> updateBook(Book book) {
+        return executor.submitWrite(() -> bookController.updateBook(book));
+    }
+
+    public CompletableFuture<Book> getBookById(int id) {
+        return executor.submit(() -> bookController.getBookById(id));
+    }
+}
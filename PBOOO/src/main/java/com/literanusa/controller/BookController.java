@@ -1,23 +1,92 @@
 package com.literanusa.controller;
 
+import com.literanusa.cache.CacheMXBean;
+import com.literanusa.cache.SearchCacheMXBean;
 import com.literanusa.dao.BookDAO;
+import com.literanusa.dao.Page;
 import com.literanusa.factory.DAOFactory;
 import com.literanusa.model.Book;
+import com.literanusa.model.Loan;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class BookController {
     private BookDAO bookDAO;
+    private final CatalogCache catalogCache;
 
     public BookController() {
         this.bookDAO = DAOFactory.getInstance().getBookDAO();
+        this.catalogCache = CatalogCache.getInstance(bookDAO);
     }
 
+    /**
+     * Served from the shared catalog cache; the list and its books are the caller's own copies.
+     */
     public List<Book> getAllBooks() {
-        return bookDAO.getAllBooks();
+        List<Book> books = catalogCache.getLists().getOrLoad(CatalogCache.ALL_BOOKS, key -> {
+            List<Book> loaded = bookDAO.getAllBooks();
+            // The DAO answers an error with an empty list; don't keep serving that
+            return loaded.isEmpty() ? null : loaded;
+        });
+        return copies(books);
     }
 
+    // Cached books are shared by every controller, and views edit the ones they're given
+    private static List<Book> copies(List<Book> books) {
+        List<Book> copies = new ArrayList<>(books != null ? books.size() : 0);
+        if (books != null) {
+            for (Book book : books) {
+                copies.add(new Book(book));
+            }
+        }
+        return copies;
+    }
+
+    public CacheMXBean getCatalogCacheStats() {
+        return catalogCache.getLists();
+    }
+
+    public Page<Book> getBooksPage(BookDAO.SortOrder order, Book after, int pageSize) {
+        return bookDAO.getBooksPage(order, after, pageSize);
+    }
+
+    public boolean forEachBook(Consumer<? super Book> action) {
+        return bookDAO.forEachBook(action);
+    }
+
+    /**
+     * Served from the shared search cache. Case and spacing don't change the results, so the DAO
+     * searches for the normalized keyword. A failed search isn't cached and comes back empty; the
+     * list and its books are the caller's own copies.
+     */
     public List<Book> searchBooks(String keyword) {
-        return bookDAO.searchBooks(keyword);
+        return copies(catalogCache.getSearches().get(keyword, "db", bookDAO::searchBooks));
+    }
+
+    /**
+     * Substring match on title, author or genre over the whole catalog, as the catalog dialog
+     * filters it; cached alongside {@link #searchBooks(String)}.
+     */
+    public List<Book> filterCatalog(String keyword) {
+        List<Book> books = catalogCache.getSearches().get(keyword, "catalog", query -> {
+            List<Book> allBooks = getAllBooks();
+            if (allBooks.isEmpty()) {
+                return null;
+            }
+            return allBooks.stream()
+                    .filter(book -> book.getTitle().toLowerCase().contains(query) ||
+                            book.getAuthor().toLowerCase().contains(query) ||
+                            (book.getGenre() != null && book.getGenre().toLowerCase().contains(query)))
+                    .collect(Collectors.toList());
+        });
+        return copies(books);
+    }
+
+    public SearchCacheMXBean getSearchCacheStats() {
+        return catalogCache.getSearches();
     }
 
     public boolean addBook(Book book) {
@@ -31,4 +100,11 @@ public class BookController {
     public Book getBookById(int id) {
         return bookDAO.getBookById(id);
     }
+
+    /**
+     * Books referenced by the given loans, fetched together rather than one query per loan.
+     */
+    public Map<Integer, Book> getBooksForLoans(List<Loan> loans) {
+        return bookDAO.getBooksByIds(loans.stream().map(Loan::getBookId).collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,113 @@
+package com.literanusa.controller;
+
+import com.literanusa.cache.ChangeBus;
+import com.literanusa.cache.ChangeEvent;
+import com.literanusa.cache.LruCache;
+import com.literanusa.cache.SearchCache;
+import com.literanusa.dao.BookDAO;
+import com.literanusa.model.Book;
+import com.literanusa.util.AsyncExecutor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog listings shared by every {@link BookController} in the process.
+ *
+ * New or edited books drop the cached lists. Borrows and returns only change availability, so
+ * the affected books are re-read in one query on a worker thread and swapped into the cached
+ * lists in place. Size
+ * and TTL come from -Dliteranusa.cache.catalog.maxEntries and -Dliteranusa.cache.catalog.ttlMs;
+ * the TTL bounds how long changes made by other clients go unseen.
+ *
+ * Search results are cached separately against a catalog version that every book change bumps,
+ * sized by -Dliteranusa.cache.search.maxEntries and -Dliteranusa.cache.search.ttlMs.
+ */
+final class CatalogCache {
+    static final String ALL_BOOKS = "all";
+
+    private static CatalogCache instance;
+
+    private final BookDAO bookDAO;
+    private final LruCache<String, List<Book>> lists;
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final SearchCache<List<Book>> searches;
+    private final Object refreshLock = new Object();
+
+    private CatalogCache(BookDAO bookDAO) {
+        this.bookDAO = bookDAO;
+        this.lists = new LruCache<String, List<Book>>("catalog",
+                Integer.getInteger("literanusa.cache.catalog.maxEntries", 16),
+                Long.getLong("literanusa.cache.catalog.ttlMs", 60000L)).registerMBean();
+        this.searches = new SearchCache<List<Book>>("search",
+                Integer.getInteger("literanusa.cache.search.maxEntries", 256),
+                Long.getLong("literanusa.cache.search.ttlMs", 60000L), catalogVersion::get).registerMBean();
+        ChangeBus.getInstance().subscribe(this::onChange);
+    }
+
+    static synchronized CatalogCache getInstance(BookDAO bookDAO) {
+        if (instance == null) {
+            instance = new CatalogCache(bookDAO);
+        }
+        return instance;
+    }
+
+    LruCache<String, List<Book>> getLists() {
+        return lists;
+    }
+
+    SearchCache<List<Book>> getSearches() {
+        return searches;
+    }
+
+    private void onChange(ChangeEvent event) {
+        if (event.getType() == ChangeEvent.Type.LOANS_CHANGED) {
+            return;
+        }
+        // Results show availability too, so any book change retires every cached search
+        catalogVersion.incrementAndGet();
+        if (event.getType() != ChangeEvent.Type.AVAILABILITY_CHANGED || event.getIds().isEmpty()) {
+            lists.invalidateAll();
+            return;
+        }
+        if (lists.getSize() == 0) {
+            // Still stops a load that started before this change from being cached
+            lists.invalidateAll();
+            return;
+        }
+
+        // Listeners run on the writer's thread and should be quick, so re-read on a worker instead
+        Set<Integer> ids = event.getIds();
+        AsyncExecutor.getInstance().submit(() -> refreshAvailability(ids))
+                .whenComplete((refreshed, error) -> {
+                    if (error != null || !refreshed) {
+                        lists.invalidateAll();
+                    }
+                });
+    }
+
+    /**
+     * Reads and patches under one lock, so when refreshes overlap the last to patch also read last.
+     * Lists cached before the patch get it; loads still running when it lands aren't cached.
+     *
+     * @return false if the books couldn't all be read
+     */
+    private boolean refreshAvailability(Set<Integer> ids) {
+        synchronized (refreshLock) {
+            Map<Integer, Book> fresh = bookDAO.getBooksByIds(ids);
+            if (fresh.size() < ids.size()) {
+                return false;
+            }
+            lists.updateAll((key, books) -> {
+                List<Book> updated = new ArrayList<>(books.size());
+                for (Book book : books) {
+                    updated.add(fresh.getOrDefault(book.getId(), book));
+                }
+                return updated;
+            });
+            return true;
+        }
+    }
+}
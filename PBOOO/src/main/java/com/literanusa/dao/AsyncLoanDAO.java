@@ -0,0 +1,67 @@
+package com.literanusa.dao;
+
+import com.literanusa.factory.DAOFactory;
+import com.literanusa.model.Loan;
+import com.literanusa.model.LoanDetail;
+import com.literanusa.util.AsyncExecutor;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link LoanDAO} for use from Swing event handlers.
+ */
+public class AsyncLoanDAO {
+    private final LoanDAO loanDAO;
+    private final AsyncExecutor executor;
+
+    public AsyncLoanDAO() {
+        this(DAOFactory.getInstance().getLoanDAO(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncLoanDAO(LoanDAO loanDAO, AsyncExecutor executor) {
+        this.loanDAO = loanDAO;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Boolean> createLoan(Loan loan) {
+        return executor.submitWrite(() -> loanDAO.createLoan(loan));
+    }
+
+    public CompletableFuture<LoanDAO.BorrowResult> borrowBook(Loan loan) {
+        return executor.submitWrite(() -> loanDAO.borrowBook(loan));
+    }
+
+    public CompletableFuture<Boolean> returnBook(int loanId) {
+        return executor.submitWrite(() -> loanDAO.returnBook(loanId));
+    }
+
+    public CompletableFuture<Map<Integer, LoanDAO.ReturnOutcome>> returnBooks(Collection<Integer> loanIds) {
+        return executor.submitWrite(() -> loanDAO.returnBooks(loanIds));
+    }
+
+    public CompletableFuture<List<LoanDAO.ReturnOutcome>> returnBooksByBookAndUser(List<Loan> items) {
+        return executor.submitWrite(() -> loanDAO.returnBooksByBookAndUser(items));
+    }
+
+    public CompletableFuture<Page<Loan>> getLoansPage(Loan after, int pageSize) {
+        return executor.submit(() -> loanDAO.getLoansPage(after, pageSize));
+    }
+
+    public CompletableFuture<Page<LoanDetail>> getLoanDetailsPage(LoanDetail after, int pageSize) {
+        return executor.submit(() -> loanDAO.getLoanDetailsPage(after, pageSize));
+    }
+
+    public CompletableFuture<List<LoanDetail>> getLoanDetailsByUserId(int userId) {
+        return executor.submit(() -> loanDAO.getLoanDetailsByUserId(userId));
+    }
+
+    public CompletableFuture<List<Loan>> getLoansByUserId(int userId) {
+        return executor.submit(() -> loanDAO.getLoansByUserId(userId));
+    }
+
+    public CompletableFuture<List<Loan>> getAllLoans() {
+        return executor.submit(loanDAO::getAllLoans);
+    }
+}
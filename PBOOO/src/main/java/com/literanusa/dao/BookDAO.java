@@ -1,76 +1,295 @@
 package com.literanusa.dao;
 
+import com.literanusa.cache.ChangeBus;
+import com.literanusa.cache.ChangeEvent;
+import com.literanusa.cache.VersionedCache;
 import com.literanusa.model.Book;
+import com.literanusa.util.DatabaseBackend;
 import com.literanusa.util.DatabaseConnection;
+import com.literanusa.util.RetryPolicy;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class BookDAO {
-    private Connection connection;
+    // Shared by every instance, so a write through one BookDAO is seen by all
+    private static final VersionedCache<Integer, Book> BOOK_CACHE = new VersionedCache<Integer, Book>("book",
+            Integer.getInteger("literanusa.cache.book.maxEntries", 2000),
+            Long.getLong("literanusa.cache.book.maxStalenessMs", 2000L),
+            Long.getLong("literanusa.cache.book.ttlMs", 600000L)).registerMBean();
+
+    static {
+        ChangeBus.getInstance().subscribe(event -> {
+            if (event.getType() == ChangeEvent.Type.BOOKS_ADDED || event.getType() == ChangeEvent.Type.LOANS_CHANGED) {
+                return;
+            }
+            if (event.getIds().isEmpty()) {
+                BOOK_CACHE.invalidateAll();
+            } else {
+                event.getIds().forEach(BOOK_CACHE::invalidate);
+            }
+        });
+    }
+
+    private final DataSource writeDataSource;
+    private final DataSource readDataSource;
+    private final RetryPolicy retryPolicy;
 
     public BookDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this(DatabaseConnection.getInstance().getWriteDataSource(), DatabaseConnection.getInstance().getReadDataSource(),
+                DatabaseConnection.getInstance().getRetryPolicy());
     }
 
+    public BookDAO(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public BookDAO(DataSource writeDataSource, DataSource readDataSource) {
+        this(writeDataSource, readDataSource, RetryPolicy.NONE);
+    }
+
+    public BookDAO(DataSource writeDataSource, DataSource readDataSource, RetryPolicy retryPolicy) {
+        this.writeDataSource = writeDataSource;
+        this.readDataSource = readDataSource;
+        this.retryPolicy = retryPolicy;
+    }
+
+    // Everything a card or table row shows; leaves out the synopsis TEXT column, which only BookDetailView needs
+    private static final String SUMMARY_COLUMNS =
+            "id, title, author, isbn, genre, rating, available_copies, total_copies, cover_image";
+
+    /**
+     * @return all books as summaries (no synopsis); use {@link #getBookById} for the full record
+     */
     public List<Book> getAllBooks() {
-        List<Book> books = new ArrayList<>();
-        String sql = "SELECT * FROM books ORDER BY rating DESC";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Book book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setIsbn(rs.getString("isbn"));
-                book.setGenre(rs.getString("genre"));
-                book.setSynopsis(rs.getString("synopsis"));
-                book.setRating(rs.getDouble("rating"));
-                book.setAvailableCopies(rs.getInt("available_copies"));
-                book.setTotalCopies(rs.getInt("total_copies"));
-                book.setCoverImage(rs.getString("cover_image"));
-                books.add(book);
-            }
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM books ORDER BY rating DESC";
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    return BookRowMapper.INSTANCE.mapAll(sql, rs);
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return books;
+        return new ArrayList<>();
+    }
+
+    /**
+     * Summaries with their update stamp and version, for keeping a local copy of the catalog in
+     * sync. updated_at is set on insert too, so new books are included.
+     *
+     * @param since only books updated at or after this time, or null for every book
+     * @return the books, or null if the database couldn't be read
+     */
+    public List<Book> getBooksUpdatedSince(LocalDateTime since) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + ", updated_at, version FROM books" +
+                (since != null ? " WHERE updated_at >= ?" : "");
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    if (since != null) {
+                        stmt.setTimestamp(1, Timestamp.valueOf(since));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return BookRowMapper.INSTANCE.mapAll(sql, rs);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Every book in id order, read lazily for exports and reports. Close the stream when done.
+     *
+     * @throws DataAccessException if the query fails, also while the stream is consumed
+     */
+    public Stream<Book> streamBooks(int fetchSize) {
+        return BookRowMapper.INSTANCE.stream(readDataSource, "SELECT * FROM books ORDER BY id", fetchSize);
+    }
+
+    public Stream<Book> streamBooks() {
+        return streamBooks(RowMapper.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Feeds every book to {@code action} without holding the catalog in memory.
+     *
+     * @return false if reading failed part way
+     */
+    public boolean forEachBook(Consumer<? super Book> action) {
+        try (Stream<Book> books = streamBooks()) {
+            books.forEach(action);
+            return true;
+        } catch (DataAccessException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public enum SortOrder {
+        RATING, TITLE
+    }
+
+    private static final String PAGE_BY_RATING_FIRST =
+            "SELECT " + SUMMARY_COLUMNS + " FROM books ORDER BY rating DESC, id DESC LIMIT ?";
+    private static final String PAGE_BY_RATING_AFTER =
+            "SELECT " + SUMMARY_COLUMNS + " FROM books WHERE rating <= ? AND (rating < ? OR (rating = ? AND id < ?)) " +
+                    "ORDER BY rating DESC, id DESC LIMIT ?";
+    private static final String PAGE_BY_TITLE_FIRST =
+            "SELECT " + SUMMARY_COLUMNS + " FROM books ORDER BY title, id LIMIT ?";
+    private static final String PAGE_BY_TITLE_AFTER =
+            "SELECT " + SUMMARY_COLUMNS + " FROM books WHERE title >= ? AND (title > ? OR (title = ? AND id > ?)) " +
+                    "ORDER BY title, id LIMIT ?";
+
+    /**
+     * Reads the catalog one page at a time, seeking past the previous page's last book
+     * instead of using OFFSET, so every page costs the same regardless of depth.
+     *
+     * @param after last book of the previous page, or null for the first page
+     */
+    public Page<Book> getBooksPage(SortOrder order, Book after, int pageSize) {
+        int size = Page.clampSize(pageSize);
+        boolean byTitle = order == SortOrder.TITLE;
+        String sql = after == null
+                ? (byTitle ? PAGE_BY_TITLE_FIRST : PAGE_BY_RATING_FIRST)
+                : (byTitle ? PAGE_BY_TITLE_AFTER : PAGE_BY_RATING_AFTER);
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    int index = 1;
+                    if (after != null) {
+                        // The sort key appears three times: an index range bound, then the seek predicate
+                        if (byTitle) {
+                            for (int i = 0; i < 3; i++) {
+                                stmt.setString(index++, after.getTitle());
+                            }
+                        } else {
+                            // Compare as DECIMAL(3,2), the column's own type, so equal ratings match exactly
+                            BigDecimal rating = BigDecimal.valueOf(after.getRating()).setScale(2, RoundingMode.HALF_UP);
+                            for (int i = 0; i < 3; i++) {
+                                stmt.setBigDecimal(index++, rating);
+                            }
+                        }
+                        stmt.setInt(index++, after.getId());
+                    }
+                    stmt.setInt(index, size + 1);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return Page.of(BookRowMapper.INSTANCE.mapAll(sql, rs), size);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Page.empty();
     }
 
+    private static final int DEFAULT_SEARCH_LIMIT = 100;
+    // InnoDB ignores shorter tokens (innodb_ft_min_token_size)
+    private static final int MIN_FULLTEXT_TOKEN = 3;
+    private static final int ER_FT_MATCHING_KEY_NOT_FOUND = 1191;
+
+    private static final String FULLTEXT_SEARCH =
+            "SELECT " + SUMMARY_COLUMNS + " FROM books " +
+                    "WHERE MATCH(title, author, genre, synopsis) AGAINST (? IN BOOLEAN MODE) " +
+                    "ORDER BY MATCH(title, author, genre, synopsis) AGAINST (? IN BOOLEAN MODE) DESC, rating DESC LIMIT ?";
+    // Case-insensitive on every backend, as under MySQL's default collation, since cached searches are shared across casings
+    private static final String LIKE_SEARCH =
+            "SELECT " + SUMMARY_COLUMNS + " FROM books " +
+                    "WHERE LOWER(title) LIKE LOWER(?) OR LOWER(author) LIKE LOWER(?) OR LOWER(genre) LIKE LOWER(?) " +
+                    "ORDER BY CASE WHEN LOWER(title) LIKE LOWER(?) THEN 0 ELSE 1 END, rating DESC LIMIT ?";
+
     public List<Book> searchBooks(String keyword) {
-        List<Book> books = new ArrayList<>();
-        String sql = "SELECT * FROM books WHERE title LIKE ? OR author LIKE ? OR genre LIKE ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            String searchPattern = "%" + keyword + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
-
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Book book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setIsbn(rs.getString("isbn"));
-                book.setGenre(rs.getString("genre"));
-                book.setSynopsis(rs.getString("synopsis"));
-                book.setRating(rs.getDouble("rating"));
-                book.setAvailableCopies(rs.getInt("available_copies"));
-                book.setTotalCopies(rs.getInt("total_copies"));
-                books.add(book);
-            }
+        return searchBooks(keyword, DEFAULT_SEARCH_LIMIT);
+    }
+
+    /**
+     * Most relevant books first. On MySQL this uses the full-text index over title, author, genre
+     * and synopsis, matching every word by prefix; other backends, and keywords with no word long
+     * enough to index, fall back to a substring match on title, author and genre.
+     *
+     * @return the matches, possibly none, or null if the database couldn't be read
+     */
+    public List<Book> searchBooks(String keyword, int limit) {
+        String fullTextQuery = toFullTextQuery(keyword);
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection()) {
+                    if (fullTextQuery != null && DatabaseBackend.of(connection).supportsFullTextSearch()) {
+                        try (PreparedStatement stmt = connection.prepareStatement(FULLTEXT_SEARCH)) {
+                            stmt.setString(1, fullTextQuery);
+                            stmt.setString(2, fullTextQuery);
+                            stmt.setInt(3, limit);
+                            try (ResultSet rs = stmt.executeQuery()) {
+                                return BookRowMapper.INSTANCE.mapAll(FULLTEXT_SEARCH, rs);
+                            }
+                        } catch (SQLException e) {
+                            // Index not created yet (migration pending or failed); the substring search still works
+                            if (e.getErrorCode() != ER_FT_MATCHING_KEY_NOT_FOUND) {
+                                throw e;
+                            }
+                        }
+                    }
+                    try (PreparedStatement stmt = connection.prepareStatement(LIKE_SEARCH)) {
+                        // A missing keyword is searched like a blank one
+                        String searchPattern = "%" + (keyword != null ? keyword : "") + "%";
+                        stmt.setString(1, searchPattern);
+                        stmt.setString(2, searchPattern);
+                        stmt.setString(3, searchPattern);
+                        stmt.setString(4, searchPattern);
+                        stmt.setInt(5, limit);
+
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            return BookRowMapper.INSTANCE.mapAll(LIKE_SEARCH, rs);
+                        }
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return books;
+        return null;
+    }
+
+    /**
+     * Turns free text into a boolean-mode query requiring each word as a prefix ("+laskar* +pel*"),
+     * dropping operator characters. Returns null if no word is long enough for the index.
+     */
+    static String toFullTextQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : keyword.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= MIN_FULLTEXT_TOKEN) {
+                query.append(query.length() == 0 ? "+" : " +").append(word).append('*');
+            }
+        }
+        return query.length() == 0 ? null : query.toString();
     }
 
     public boolean addBook(Book book) {
         String sql = "INSERT INTO books (title, author, isbn, genre, synopsis, available_copies, total_copies) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, book.getTitle());
             stmt.setString(2, book.getAuthor());
             stmt.setString(3, book.getIsbn());
@@ -79,7 +298,11 @@ public class BookDAO {
             stmt.setInt(6, book.getAvailableCopies());
             stmt.setInt(7, book.getTotalCopies());
 
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            ChangeBus.getInstance().publish(ChangeEvent.of(ChangeEvent.Type.BOOKS_ADDED));
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -87,8 +310,12 @@ public class BookDAO {
     }
 
     public boolean updateBook(Book book) {
-        String sql = "UPDATE books SET title=?, author=?, isbn=?, genre=?, synopsis=?, available_copies=?, total_copies=? WHERE id=?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        // A summary never loaded the synopsis, so its null must not overwrite the stored one
+        String sql = book.isSummary()
+                ? "UPDATE books SET title=?, author=?, isbn=?, genre=?, synopsis=COALESCE(?, synopsis), available_copies=?, total_copies=?, version=version+1 WHERE id=?"
+                : "UPDATE books SET title=?, author=?, isbn=?, genre=?, synopsis=?, available_copies=?, total_copies=?, version=version+1 WHERE id=?";
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, book.getTitle());
             stmt.setString(2, book.getAuthor());
             stmt.setString(3, book.getIsbn());
@@ -98,32 +325,116 @@ public class BookDAO {
             stmt.setInt(7, book.getTotalCopies());
             stmt.setInt(8, book.getId());
 
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            ChangeBus.getInstance().publish(ChangeEvent.of(ChangeEvent.Type.BOOKS_UPDATED, book.getId()));
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    // Largest IN list per query; lists are padded to a power of two so only a handful of
+    // distinct SQL strings reach the statement cache
+    static final int MAX_IDS_PER_QUERY = 256;
+
+    /**
+     * Fetches many books in as few queries as possible.
+     *
+     * @return books by id; ids with no matching book are absent
+     */
+    public Map<Integer, Book> getBooksByIds(Collection<Integer> ids) {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.remove(null);
+        Map<Integer, Book> books = new HashMap<>();
+        if (distinct.isEmpty()) {
+            return books;
+        }
+        try {
+            retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection()) {
+                    for (int from = 0; from < distinct.size(); from += MAX_IDS_PER_QUERY) {
+                        List<Integer> chunk = distinct.subList(from, Math.min(from + MAX_IDS_PER_QUERY, distinct.size()));
+                        int slots = Integer.highestOneBit(chunk.size());
+                        if (slots < chunk.size()) {
+                            slots <<= 1;
+                        }
+                        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM books WHERE id IN (" + placeholders(slots) + ")";
+                        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                            for (int i = 0; i < slots; i++) {
+                                // Unused slots repeat the last id, which doesn't change the result
+                                stmt.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                            }
+                            try (ResultSet rs = stmt.executeQuery()) {
+                                for (Book book : BookRowMapper.INSTANCE.mapAll(sql, rs)) {
+                                    books.put(book.getId(), book);
+                                }
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return books;
+    }
+
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Served from a near cache that re-checks the row version once an entry is older than
+     * -Dliteranusa.cache.book.maxStalenessMs. The returned book is the caller's own copy.
+     */
     public Book getBookById(int id) {
+        Book book = BOOK_CACHE.get(id, this::loadBook, this::loadVersion);
+        return book != null ? new Book(book) : null;
+    }
+
+    public static VersionedCache<Integer, Book> getBookCache() {
+        return BOOK_CACHE;
+    }
+
+    private VersionedCache.Versioned<Book> loadBook(int id) {
         String sql = "SELECT * FROM books WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                Book book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setIsbn(rs.getString("isbn"));
-                book.setGenre(rs.getString("genre"));
-                book.setSynopsis(rs.getString("synopsis"));
-                book.setRating(rs.getDouble("rating"));
-                book.setAvailableCopies(rs.getInt("available_copies"));
-                book.setTotalCopies(rs.getInt("total_copies"));
-                return book;
-            }
+        try {
+            Book book = retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setInt(1, id);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return BookRowMapper.INSTANCE.mapFirst(sql, rs);
+                    }
+                }
+            });
+            return book != null ? new VersionedCache.Versioned<>(book, book.getVersion()) : null;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private Long loadVersion(int id) {
+        String sql = "SELECT version FROM books WHERE id = ?";
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setInt(1, id);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return rs.next() ? rs.getLong(1) : null;
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,318 @@
+package com.literanusa.dao;
+
+import com.literanusa.cache.ChangeBus;
+import com.literanusa.cache.ChangeEvent;
+import com.literanusa.util.CircuitBreaker;
+import com.literanusa.util.CsvReader;
+import com.literanusa.util.DatabaseConnection;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads a catalog from CSV with columns title, author, isbn, genre, synopsis, copies.
+ *
+ * The file is read one record at a time and written as multi-row INSERTs, several per JDBC
+ * batch, with one commit per batch. A book whose ISBN already exists is updated instead, and
+ * its available copies move by the change in total copies. Rows that fail validation or that
+ * the database rejects are reported with their line number; the rest of the file still loads.
+ * Interrupting the importing thread stops it after the current batch. Caches hear about the
+ * import once, when it ends.
+ */
+public class BookImporter {
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger("literanusa.import.batchSize", 1000);
+    private static final int ROWS_PER_STATEMENT = 100;
+    private static final int MAX_REJECTS_KEPT = 1000;
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO books (title, author, isbn, genre, synopsis, available_copies, total_copies) VALUES ";
+    private static final String ROW_VALUES = "(?, ?, ?, ?, ?, ?, ?)";
+    // available_copies is assigned first so it still sees the old total_copies
+    private static final String UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE " +
+            "title = VALUES(title), author = VALUES(author), " +
+            "genre = COALESCE(VALUES(genre), genre), synopsis = COALESCE(VALUES(synopsis), synopsis), " +
+            "available_copies = GREATEST(available_copies + VALUES(total_copies) - total_copies, 0), " +
+            "total_copies = VALUES(total_copies), version = version + 1";
+
+    public interface ProgressListener {
+        void onProgress(Result progress);
+    }
+
+    public static class Reject {
+        private final long line;
+        private final String reason;
+
+        Reject(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() { return line; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + reason;
+        }
+    }
+
+    public static class Result {
+        private long rowsRead;
+        private long rowsWritten;
+        private long rejectCount;
+        private boolean cancelled;
+        private final List<Reject> rejects = new ArrayList<>();
+
+        public long getRowsRead() { return rowsRead; }
+        public long getRowsWritten() { return rowsWritten; }
+        public long getRejectCount() { return rejectCount; }
+        public boolean isCancelled() { return cancelled; }
+
+        /**
+         * @return the first rejected rows; {@link #getRejectCount()} has the full count
+         */
+        public List<Reject> getRejects() { return Collections.unmodifiableList(rejects); }
+
+        private void reject(long line, String reason) {
+            rejectCount++;
+            if (rejects.size() < MAX_REJECTS_KEPT) {
+                rejects.add(new Reject(line, reason));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "BookImporter.Result[read=" + rowsRead + ", written=" + rowsWritten + ", rejected=" + rejectCount +
+                    (cancelled ? ", cancelled" : "") + "]";
+        }
+    }
+
+    private static class Row {
+        final long line;
+        final String title, author, isbn, genre, synopsis;
+        final int copies;
+
+        Row(long line, String title, String author, String isbn, String genre, String synopsis, int copies) {
+            this.line = line;
+            this.title = title;
+            this.author = author;
+            this.isbn = isbn;
+            this.genre = genre;
+            this.synopsis = synopsis;
+            this.copies = copies;
+        }
+    }
+
+    private final DataSource dataSource;
+    private final int batchSize;
+
+    public BookImporter() {
+        this(DatabaseConnection.getInstance().getWriteDataSource(), DEFAULT_BATCH_SIZE);
+    }
+
+    public BookImporter(DataSource dataSource, int batchSize) {
+        this.dataSource = dataSource;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @param listener told after every committed batch; may be null
+     * @throws IOException if the file can't be read; batches committed before that stay loaded
+     * @throws SQLException if the database is unreachable; batches committed before that stay loaded
+     */
+    public Result importCsv(Reader input, ProgressListener listener) throws IOException, SQLException {
+        Result result = new Result();
+        List<Row> pending = new ArrayList<>(batchSize);
+
+        try {
+            return importRows(input, listener, result, pending);
+        } finally {
+            if (result.rowsWritten > 0) {
+                // Upserts both add and change books, and which ones isn't known here; one
+                // invalidation for the whole import, however it ended, rather than one per batch
+                ChangeBus.getInstance().publish(ChangeEvent.of(ChangeEvent.Type.BOOKS_UPDATED));
+            }
+        }
+    }
+
+    private Result importRows(Reader input, ProgressListener listener, Result result, List<Row> pending)
+            throws IOException, SQLException {
+        try (CsvReader csv = new CsvReader(input);
+             Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                List<String> record;
+                boolean first = true;
+                while ((record = csv.readRecord()) != null) {
+                    long line = csv.getRecordLineNumber();
+                    if (first) {
+                        first = false;
+                        if (!record.isEmpty() && record.get(0).trim().equalsIgnoreCase("title")) {
+                            continue;
+                        }
+                    }
+                    if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                        continue;
+                    }
+
+                    result.rowsRead++;
+                    Row row = parse(line, record, result);
+                    if (row != null) {
+                        pending.add(row);
+                    }
+                    if (pending.size() >= batchSize) {
+                        flush(connection, pending, result);
+                        report(listener, result);
+                        if (Thread.currentThread().isInterrupted()) {
+                            result.cancelled = true;
+                            return result;
+                        }
+                    }
+                }
+                flush(connection, pending, result);
+                report(listener, result);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return result;
+    }
+
+    private static void report(ProgressListener listener, Result result) {
+        if (listener != null) {
+            listener.onProgress(result);
+        }
+    }
+
+    private static Row parse(long line, List<String> record, Result result) {
+        if (record.size() < 5 || record.size() > 6) {
+            result.reject(line, "expected 5 or 6 columns, found " + record.size());
+            return null;
+        }
+        String title = text(record.get(0));
+        String author = text(record.get(1));
+        String isbn = text(record.get(2));
+        String genre = text(record.get(3));
+        String synopsis = text(record.get(4));
+        String copiesText = record.size() > 5 ? text(record.get(5)) : null;
+
+        if (title == null || author == null) {
+            result.reject(line, "title and author are required");
+            return null;
+        }
+        if (title.length() > 255 || author.length() > 255) {
+            result.reject(line, "title or author longer than 255 characters");
+            return null;
+        }
+        if (isbn != null && isbn.length() > 20) {
+            result.reject(line, "ISBN longer than 20 characters");
+            return null;
+        }
+        if (genre != null && genre.length() > 100) {
+            result.reject(line, "genre longer than 100 characters");
+            return null;
+        }
+        int copies = 1;
+        if (copiesText != null) {
+            try {
+                copies = Integer.parseInt(copiesText);
+            } catch (NumberFormatException e) {
+                copies = -1;
+            }
+            if (copies < 1) {
+                result.reject(line, "copies must be a positive number: " + copiesText);
+                return null;
+            }
+        }
+        return new Row(line, title, author, isbn, genre, synopsis, copies);
+    }
+
+    private static String text(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private void flush(Connection connection, List<Row> rows, Result result) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            writeBatch(connection, rows);
+            connection.commit();
+            result.rowsWritten += rows.size();
+        } catch (SQLException e) {
+            connection.rollback();
+            if (CircuitBreaker.isConnectionFailure(e)) {
+                throw e;
+            }
+            // Something in this batch is bad; write row by row so only that row is lost
+            writeOneByOne(connection, rows, result);
+        }
+        rows.clear();
+    }
+
+    private static void writeBatch(Connection connection, List<Row> rows) throws SQLException {
+        int full = rows.size() / ROWS_PER_STATEMENT * ROWS_PER_STATEMENT;
+        if (full > 0) {
+            try (PreparedStatement stmt = connection.prepareStatement(upsertSql(ROWS_PER_STATEMENT))) {
+                for (int start = 0; start < full; start += ROWS_PER_STATEMENT) {
+                    bind(stmt, rows.subList(start, start + ROWS_PER_STATEMENT));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+        if (full < rows.size()) {
+            List<Row> tail = rows.subList(full, rows.size());
+            try (PreparedStatement stmt = connection.prepareStatement(upsertSql(tail.size()))) {
+                bind(stmt, tail);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private static void writeOneByOne(Connection connection, List<Row> rows, Result result) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(upsertSql(1))) {
+            for (Row row : rows) {
+                try {
+                    bind(stmt, Collections.singletonList(row));
+                    stmt.executeUpdate();
+                    result.rowsWritten++;
+                } catch (SQLException e) {
+                    if (CircuitBreaker.isConnectionFailure(e)) {
+                        throw e;
+                    }
+                    result.reject(row.line, e.getMessage());
+                }
+            }
+        }
+        connection.commit();
+    }
+
+    private static String upsertSql(int rowCount) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rowCount * (ROW_VALUES.length() + 2) + UPSERT_SUFFIX.length());
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rowCount; i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW_VALUES);
+        }
+        return sql.append(UPSERT_SUFFIX).toString();
+    }
+
+    private static void bind(PreparedStatement stmt, List<Row> rows) throws SQLException {
+        int index = 1;
+        for (Row row : rows) {
+            stmt.setString(index++, row.title);
+            stmt.setString(index++, row.author);
+            stmt.setString(index++, row.isbn);
+            stmt.setString(index++, row.genre);
+            stmt.setString(index++, row.synopsis);
+            stmt.setInt(index++, row.copies);
+            stmt.setInt(index++, row.copies);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.literanusa.dao;
+
+import com.literanusa.model.Book;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+final class BookRowMapper extends RowMapper<Book> {
+    static final BookRowMapper INSTANCE = new BookRowMapper();
+
+    private static final int ID = 0, TITLE = 1, AUTHOR = 2, ISBN = 3, GENRE = 4, SYNOPSIS = 5, RATING = 6,
+            AVAILABLE_COPIES = 7, TOTAL_COPIES = 8, COVER_IMAGE = 9, CREATED_AT = 10, UPDATED_AT = 11, VERSION = 12;
+
+    private BookRowMapper() {
+        super("id", "title", "author", "isbn", "genre", "synopsis", "rating",
+                "available_copies", "total_copies", "cover_image", "created_at", "updated_at", "version");
+    }
+
+    @Override
+    protected Book mapRow(ResultSet rs, int[] idx) throws SQLException {
+        Book book = new Book();
+        book.setId(rs.getInt(idx[ID]));
+        book.setTitle(rs.getString(idx[TITLE]));
+        book.setAuthor(rs.getString(idx[AUTHOR]));
+        if (idx[ISBN] != ABSENT) book.setIsbn(rs.getString(idx[ISBN]));
+        if (idx[GENRE] != ABSENT) book.setGenre(rs.getString(idx[GENRE]));
+        if (idx[SYNOPSIS] != ABSENT) book.setSynopsis(rs.getString(idx[SYNOPSIS]));
+        else book.setSummary(true);
+        if (idx[RATING] != ABSENT) book.setRating(rs.getDouble(idx[RATING]));
+        if (idx[AVAILABLE_COPIES] != ABSENT) book.setAvailableCopies(rs.getInt(idx[AVAILABLE_COPIES]));
+        if (idx[TOTAL_COPIES] != ABSENT) book.setTotalCopies(rs.getInt(idx[TOTAL_COPIES]));
+        if (idx[COVER_IMAGE] != ABSENT) book.setCoverImage(rs.getString(idx[COVER_IMAGE]));
+        if (idx[CREATED_AT] != ABSENT) book.setCreatedAt(rs.getObject(idx[CREATED_AT], LocalDateTime.class));
+        if (idx[UPDATED_AT] != ABSENT) book.setUpdatedAt(rs.getObject(idx[UPDATED_AT], LocalDateTime.class));
+        if (idx[VERSION] != ABSENT) book.setVersion(rs.getLong(idx[VERSION]));
+        return book;
+    }
+}
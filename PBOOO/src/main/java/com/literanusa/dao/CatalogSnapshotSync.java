@@ -0,0 +1,221 @@
+package com.literanusa.dao;
+
+import com.literanusa.factory.DAOFactory;
+import com.literanusa.model.Book;
+import com.literanusa.util.CatalogSnapshot;
+import com.literanusa.util.DatabaseConfig;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a {@link CatalogSnapshot} on local disk so the next startup can show the catalog before
+ * the database connects.
+ *
+ * {@link #load()} only reads the file and never touches the database. Each sync reads the books
+ * updated since the snapshot's updated_at watermark, merges them by id and version, and rewrites
+ * the file; without a usable snapshot it reads the whole catalog once. The watermark is held back
+ * by an overlap, because updated_at is stamped when a statement runs, not when it commits. The
+ * file, interval and overlap come from -Dliteranusa.snapshot.path, .intervalMs and .overlapMs.
+ */
+public class CatalogSnapshotSync {
+    // Same order as BookDAO.getAllBooks, with id breaking ties so rewrites are stable
+    private static final Comparator<Book> CATALOG_ORDER =
+            Comparator.comparingDouble(Book::getRating).reversed().thenComparingInt(Book::getId);
+
+    private static CatalogSnapshotSync instance;
+
+    private final Path file;
+    private final String source;
+    private final Supplier<BookDAO> bookDAO;
+    private final long intervalMs;
+    private final long overlapMs;
+    private ScheduledExecutorService scheduler;
+
+    private boolean loaded;
+    private volatile CatalogSnapshot snapshot;
+    // Held for a whole sync, database round trip included, so it must not be the monitor load() uses
+    private final Object syncLock = new Object();
+    private boolean unsaved;
+
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong failedSyncs = new AtomicLong();
+    private volatile int lastSyncChanged;
+    private volatile long lastSyncMillis;
+    private volatile long loadMillis;
+
+    /**
+     * @param source identifies the database; a snapshot from another database is ignored
+     * @param bookDAO called on the sync thread, so connecting doesn't hold up {@link #load()}
+     */
+    public CatalogSnapshotSync(Path file, String source, Supplier<BookDAO> bookDAO, long intervalMs, long overlapMs) {
+        this.file = file;
+        this.source = source;
+        this.bookDAO = bookDAO;
+        this.intervalMs = intervalMs;
+        this.overlapMs = overlapMs;
+    }
+
+    public static synchronized CatalogSnapshotSync getInstance() {
+        if (instance == null) {
+            String url = DatabaseConfig.fromSystemProperties().getUrl();
+            instance = new CatalogSnapshotSync(
+                    Paths.get(System.getProperty("literanusa.snapshot.path",
+                            Paths.get(System.getProperty("user.home"), ".literanusa", "catalog.snap").toString())),
+                    // Leave any connection properties, credentials included, out of the file
+                    url.split("[?;]", 2)[0],
+                    () -> DAOFactory.getInstance().getBookDAO(),
+                    Long.getLong("literanusa.snapshot.intervalMs", 300000L),
+                    Long.getLong("literanusa.snapshot.overlapMs", 60000L));
+        }
+        return instance;
+    }
+
+    /**
+     * Reads the snapshot file, once. A missing, damaged or foreign file just means there is nothing to show yet.
+     *
+     * @return the books in catalog order, or null if there is no usable snapshot
+     */
+    public synchronized List<Book> load() {
+        if (!loaded) {
+            loaded = true;
+            long start = System.nanoTime();
+            try {
+                CatalogSnapshot read = CatalogSnapshot.read(file);
+                if (read != null && source.equals(read.getSource())) {
+                    snapshot = read;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            loadMillis = (System.nanoTime() - start) / 1_000_000L;
+        }
+        return getBooks();
+    }
+
+    /**
+     * @return copies of the snapshot's books in catalog order, or null if none has been loaded or synced
+     */
+    public List<Book> getBooks() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        List<Book> books = new ArrayList<>(current.getBooks().size());
+        for (Book book : current.getBooks()) {
+            books.add(new Book(book));
+        }
+        return books;
+    }
+
+    /**
+     * Syncs now, then every interval. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-snapshot-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sync, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Runs one delta sync on the calling thread.
+     *
+     * @return books added or changed since the last snapshot, or -1 on error
+     */
+    public int sync() {
+        synchronized (syncLock) {
+            return syncLocked();
+        }
+    }
+
+    private int syncLocked() {
+        long start = System.nanoTime();
+        syncs.incrementAndGet();
+        load();
+        CatalogSnapshot current = snapshot;
+        LocalDateTime since = current == null || current.getUpdatedWatermark() == null ? null
+                : current.getUpdatedWatermark().minusNanos(overlapMs * 1_000_000L);
+
+        List<Book> delta = bookDAO.get().getBooksUpdatedSince(since);
+        if (delta == null) {
+            failedSyncs.incrementAndGet();
+            return -1;
+        }
+
+        Map<Integer, Book> merged = new LinkedHashMap<>();
+        if (current != null && since != null) {
+            for (Book book : current.getBooks()) {
+                merged.put(book.getId(), book);
+            }
+        }
+        int changed = 0;
+        LocalDateTime watermark = current != null && since != null ? current.getUpdatedWatermark() : null;
+        for (Book book : delta) {
+            Book previous = merged.get(book.getId());
+            if (previous == null || book.getVersion() > previous.getVersion()) {
+                merged.put(book.getId(), book);
+                changed++;
+            }
+            if (book.getUpdatedAt() != null && (watermark == null || book.getUpdatedAt().isAfter(watermark))) {
+                watermark = book.getUpdatedAt();
+            }
+        }
+
+        if (changed > 0 || current == null || since == null || unsaved) {
+            List<Book> books = new ArrayList<>(merged.values());
+            books.sort(CATALOG_ORDER);
+            CatalogSnapshot next = new CatalogSnapshot(source, watermark, books);
+            try {
+                next.write(file);
+                unsaved = false;
+            } catch (IOException e) {
+                // Keep the fresher copy in memory anyway; the next sync tries the file again
+                e.printStackTrace();
+                failedSyncs.incrementAndGet();
+                unsaved = true;
+            }
+            snapshot = next;
+        }
+        lastSyncChanged = changed;
+        lastSyncMillis = (System.nanoTime() - start) / 1_000_000L;
+        return changed;
+    }
+
+    public long getSyncs() { return syncs.get(); }
+    public long getFailedSyncs() { return failedSyncs.get(); }
+    public int getLastSyncChanged() { return lastSyncChanged; }
+    public long getLastSyncMillis() { return lastSyncMillis; }
+    public long getLoadMillis() { return loadMillis; }
+
+    @Override
+    public String toString() {
+        CatalogSnapshot current = snapshot;
+        return "CatalogSnapshotSync[books=" + (current != null ? current.getBooks().size() : 0) + ", syncs=" +
+                syncs.get() + ", failedSyncs=" + failedSyncs.get() + ", lastSyncChanged=" + lastSyncChanged +
+                ", lastSyncMillis=" + lastSyncMillis + ", loadMillis=" + loadMillis + "]";
+    }
+}
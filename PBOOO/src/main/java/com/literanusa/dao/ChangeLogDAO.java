@@ -0,0 +1,187 @@
+package com.literanusa.dao;
+
+import com.literanusa.cache.ChangeEvent;
+import com.literanusa.util.DatabaseConnection;
+import com.literanusa.util.RetryPolicy;
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@code change_log} table: one row per changed book or borrower, so other clients can
+ * evict exactly what changed. A null entity_id means the whole kind of data changed.
+ *
+ * Uses the primary pool directly rather than the routed data sources, so that polling
+ * neither reads from a lagging replica nor pins this client's reads to the primary.
+ */
+public class ChangeLogDAO {
+    private static final String LATEST_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM change_log";
+    private static final String CHANGES_SINCE_SQL =
+            "SELECT id, change_type, entity_id, origin FROM change_log WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String PRUNE_SQL = "DELETE FROM change_log WHERE changed_at < ? LIMIT ?";
+
+    public static final class Entry {
+        private final long id;
+        private final ChangeEvent.Type type;
+        private final Integer entityId;
+        private final String origin;
+
+        Entry(long id, ChangeEvent.Type type, Integer entityId, String origin) {
+            this.id = id;
+            this.type = type;
+            this.entityId = entityId;
+            this.origin = origin;
+        }
+
+        public long getId() { return id; }
+        public ChangeEvent.Type getType() { return type; }
+        /** @return the changed row, or null if everything of this type changed */
+        public Integer getEntityId() { return entityId; }
+        public String getOrigin() { return origin; }
+    }
+
+    private final DataSource dataSource;
+    private final RetryPolicy retryPolicy;
+
+    public ChangeLogDAO() {
+        this(DatabaseConnection.getInstance().getDataSource(), DatabaseConnection.getInstance().getRetryPolicy());
+    }
+
+    public ChangeLogDAO(DataSource dataSource) {
+        this(dataSource, RetryPolicy.NONE);
+    }
+
+    public ChangeLogDAO(DataSource dataSource, RetryPolicy retryPolicy) {
+        this.dataSource = dataSource;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Records a committed change. Book rows carry the book's current version.
+     */
+    public boolean append(ChangeEvent event, String origin) {
+        List<Integer> ids = new ArrayList<>(event.getIds());
+        boolean books = event.getType() != ChangeEvent.Type.LOANS_CHANGED;
+        try {
+            retryPolicy.execute(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    if (ids.isEmpty()) {
+                        try (PreparedStatement stmt = connection.prepareStatement(
+                                "INSERT INTO change_log (change_type, entity_id, version, origin) VALUES (?, NULL, NULL, ?)")) {
+                            stmt.setString(1, event.getType().name());
+                            stmt.setString(2, origin);
+                            stmt.executeUpdate();
+                        }
+                        return null;
+                    }
+                    for (int from = 0; from < ids.size(); from += BookDAO.MAX_IDS_PER_QUERY) {
+                        List<Integer> chunk = ids.subList(from, Math.min(from + BookDAO.MAX_IDS_PER_QUERY, ids.size()));
+                        String sql = books
+                                ? "INSERT INTO change_log (change_type, entity_id, version, origin) " +
+                                        "SELECT ?, id, version, ? FROM books WHERE id IN (" + BookDAO.placeholders(chunk.size()) + ")"
+                                : "INSERT INTO change_log (change_type, entity_id, version, origin) VALUES " +
+                                        String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, NULL, ?)"));
+                        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                            int index = 1;
+                            if (books) {
+                                stmt.setString(index++, event.getType().name());
+                                stmt.setString(index++, origin);
+                                for (Integer id : chunk) {
+                                    stmt.setInt(index++, id);
+                                }
+                            } else {
+                                for (Integer id : chunk) {
+                                    stmt.setString(index++, event.getType().name());
+                                    stmt.setInt(index++, id);
+                                    stmt.setString(index++, origin);
+                                }
+                            }
+                            stmt.executeUpdate();
+                        }
+                    }
+                    return null;
+                }
+            });
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * @return the newest entry's id, 0 if the log is empty, or -1 if it couldn't be read
+     */
+    public long getLatestId() {
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = dataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(LATEST_ID_SQL);
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * A primary key range scan, oldest first.
+     *
+     * @return up to limit entries after the watermark, or null if the log couldn't be read
+     */
+    public List<Entry> getChangesSince(long watermark, int limit) {
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = dataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(CHANGES_SINCE_SQL)) {
+                    stmt.setLong(1, watermark);
+                    stmt.setInt(2, limit);
+                    List<Entry> entries = new ArrayList<>();
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            ChangeEvent.Type type;
+                            try {
+                                type = ChangeEvent.Type.valueOf(rs.getString("change_type"));
+                            } catch (IllegalArgumentException e) {
+                                // Written by a newer client; nothing here caches it
+                                type = null;
+                            }
+                            int entityId = rs.getInt("entity_id");
+                            entries.add(new Entry(rs.getLong("id"), type, rs.wasNull() ? null : entityId,
+                                    rs.getString("origin")));
+                        }
+                    }
+                    return entries;
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * @return entries deleted, or -1 on error
+     */
+    public int deleteOlderThan(Timestamp cutoff, int limit) {
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = dataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(PRUNE_SQL)) {
+                    stmt.setTimestamp(1, cutoff);
+                    stmt.setInt(2, limit);
+                    return stmt.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,228 @@
+package com.literanusa.dao;
+
+import com.literanusa.cache.ChangeBus;
+import com.literanusa.cache.ChangeEvent;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps this client's caches coherent with writes made by other clients on the same database.
+ *
+ * Local changes published on the {@link ChangeBus} are appended to {@code change_log} under this
+ * client's origin id. Every interval the log is read past a watermark with one primary key range
+ * query, and other clients' entries are republished locally as remote events, coalesced per type,
+ * so the existing cache listeners evict or refresh exactly the affected entries.
+ *
+ * Auto-increment ids can commit out of order, so the watermark only moves over contiguous ids;
+ * an id missing for longer than the gap timeout is assumed never to arrive. Entries past a gap
+ * are still delivered right away, once. The interval, batch size, gap timeout and retention come
+ * from -Dliteranusa.changelog.intervalMs, .batchSize, .gapTimeoutMs and .retentionMs.
+ */
+public class ChangeLogSync {
+    private static final long PRUNE_INTERVAL_MS = 3600000L;
+    private static final int PRUNE_LIMIT = 10000;
+
+    private static ChangeLogSync instance;
+
+    private final ChangeLogDAO changeLogDAO;
+    private final String origin = UUID.randomUUID().toString();
+    private final long intervalMs;
+    private final int batchSize;
+    private final long gapTimeoutMs;
+    private final long retentionMs;
+    private final Consumer<ChangeEvent> recorder = this::record;
+    private volatile ScheduledExecutorService scheduler;
+
+    // Guarded by pollLock, so a slow poll never holds up writers recording their changes
+    private final Object pollLock = new Object();
+    private long watermark = -1;
+    private long gapId;
+    private long gapSince;
+    private final Set<Long> deliveredPastGap = new TreeSet<>();
+    private long lastPruneAt = System.currentTimeMillis();
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong failedPolls = new AtomicLong();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong failedAppends = new AtomicLong();
+    private final AtomicLong remoteChanges = new AtomicLong();
+    private volatile long lastPollMillis;
+
+    public ChangeLogSync(ChangeLogDAO changeLogDAO, long intervalMs, int batchSize, long gapTimeoutMs, long retentionMs) {
+        this.changeLogDAO = changeLogDAO;
+        this.intervalMs = intervalMs;
+        this.batchSize = Math.max(1, batchSize);
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionMs = retentionMs;
+    }
+
+    public static synchronized ChangeLogSync getInstance() {
+        if (instance == null) {
+            instance = new ChangeLogSync(new ChangeLogDAO(),
+                    Long.getLong("literanusa.changelog.intervalMs", 2000L),
+                    Integer.getInteger("literanusa.changelog.batchSize", 500),
+                    Long.getLong("literanusa.changelog.gapTimeoutMs", 10000L),
+                    Long.getLong("literanusa.changelog.retentionMs", 86400000L));
+        }
+        return instance;
+    }
+
+    /**
+     * Starts recording local changes and polling for remote ones. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "change-log-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ChangeBus.getInstance().subscribe(recorder);
+        scheduler.scheduleWithFixedDelay(this::poll, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            ChangeBus.getInstance().unsubscribe(recorder);
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Appends on the sync thread so writers don't wait on the extra insert; entries stay in
+     * publish order. A client that exits before the append leaves others relying on their TTLs.
+     */
+    private void record(ChangeEvent event) {
+        ScheduledExecutorService executor = scheduler;
+        if (event.isRemote() || executor == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                if (changeLogDAO.append(event, origin)) {
+                    appended.incrementAndGet();
+                } else {
+                    failedAppends.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            failedAppends.incrementAndGet();
+        }
+    }
+
+    /**
+     * Runs one poll on the calling thread; the scheduler calls it every interval.
+     *
+     * @return remote entries delivered by this poll, or -1 if the log couldn't be read
+     */
+    public int poll() {
+        synchronized (pollLock) {
+            return pollLocked();
+        }
+    }
+
+    private int pollLocked() {
+        long start = System.nanoTime();
+        polls.incrementAndGet();
+        if (watermark < 0) {
+            // Caches start empty, so only changes from here on matter
+            watermark = changeLogDAO.getLatestId();
+            if (watermark < 0) {
+                failedPolls.incrementAndGet();
+                return -1;
+            }
+        }
+        List<ChangeLogDAO.Entry> entries = changeLogDAO.getChangesSince(watermark, batchSize);
+        if (entries == null) {
+            failedPolls.incrementAndGet();
+            return -1;
+        }
+
+        Map<ChangeEvent.Type, Set<Integer>> ids = new EnumMap<>(ChangeEvent.Type.class);
+        Set<ChangeEvent.Type> everything = EnumSet.noneOf(ChangeEvent.Type.class);
+        int delivered = 0;
+        boolean contiguous = true;
+        long now = System.currentTimeMillis();
+        for (ChangeLogDAO.Entry entry : entries) {
+            if (contiguous && entry.getId() != watermark + 1) {
+                if (gapId != watermark + 1) {
+                    gapId = watermark + 1;
+                    gapSince = now;
+                }
+                if (now - gapSince < gapTimeoutMs) {
+                    contiguous = false;
+                }
+            }
+            boolean seen = deliveredPastGap.contains(entry.getId());
+            if (contiguous) {
+                watermark = entry.getId();
+                deliveredPastGap.remove(entry.getId());
+            } else if (!seen) {
+                deliveredPastGap.add(entry.getId());
+            }
+            if (seen || entry.getType() == null || origin.equals(entry.getOrigin())) {
+                continue;
+            }
+            if (entry.getEntityId() == null) {
+                everything.add(entry.getType());
+            } else {
+                ids.computeIfAbsent(entry.getType(), type -> new LinkedHashSet<>()).add(entry.getEntityId());
+            }
+            delivered++;
+        }
+
+        for (ChangeEvent.Type type : ChangeEvent.Type.values()) {
+            if (everything.contains(type)) {
+                ChangeBus.getInstance().publish(new ChangeEvent(type, Collections.<Integer>emptySet(), true));
+            } else if (ids.containsKey(type)) {
+                ChangeBus.getInstance().publish(new ChangeEvent(type, ids.get(type), true));
+            }
+        }
+        remoteChanges.addAndGet(delivered);
+
+        if (now - lastPruneAt >= PRUNE_INTERVAL_MS) {
+            lastPruneAt = now;
+            changeLogDAO.deleteOlderThan(new Timestamp(now - retentionMs), PRUNE_LIMIT);
+        }
+        lastPollMillis = (System.nanoTime() - start) / 1_000_000L;
+        return delivered;
+    }
+
+    public String getOrigin() { return origin; }
+    public long getPolls() { return polls.get(); }
+    public long getFailedPolls() { return failedPolls.get(); }
+    public long getAppended() { return appended.get(); }
+    public long getFailedAppends() { return failedAppends.get(); }
+    public long getRemoteChanges() { return remoteChanges.get(); }
+    public long getLastPollMillis() { return lastPollMillis; }
+
+    public long getWatermark() {
+        synchronized (pollLock) {
+            return watermark;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeLogSync[polls=" + polls.get() + ", failedPolls=" + failedPolls.get() + ", appended=" +
+                appended.get() + ", failedAppends=" + failedAppends.get() + ", remoteChanges=" + remoteChanges.get() +
+                ", lastPollMillis=" + lastPollMillis + "]";
+    }
+}
@@ -0,0 +1,13 @@
+package com.literanusa.dao;
+
+/**
+ * Unchecked wrapper for a {@link java.sql.SQLException} raised where a checked exception
+ * can't be thrown, such as while a row stream is being consumed.
+ */
+public class DataAccessException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public DataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,152 +1,590 @@
 package com.literanusa.dao;
 
+import com.literanusa.cache.ChangeBus;
+import com.literanusa.cache.ChangeEvent;
+import com.literanusa.cache.LruCache;
 import com.literanusa.model.Loan;
+import com.literanusa.model.LoanDetail;
+import com.literanusa.util.DatabaseBackend;
 import com.literanusa.util.DatabaseConnection;
+import com.literanusa.util.RetryPolicy;
+import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class LoanDAO {
-    private Connection connection;
+    // Each user's loan history with book titles, shared by every instance. Only that user's
+    // borrows, returns and overdue sweeps drop it; book edits drop all, since titles are joined in.
+    private static final LruCache<Integer, List<LoanDetail>> USER_LOANS = new LruCache<Integer, List<LoanDetail>>(
+            "userLoans", Integer.getInteger("literanusa.cache.userLoans.maxEntries", 500),
+            Long.getLong("literanusa.cache.userLoans.ttlMs", 300000L)).registerMBean();
+
+    static {
+        ChangeBus.getInstance().subscribe(event -> {
+            if (event.getType() == ChangeEvent.Type.BOOKS_UPDATED
+                    || (event.getType() == ChangeEvent.Type.LOANS_CHANGED && event.getIds().isEmpty())) {
+                USER_LOANS.invalidateAll();
+            } else if (event.getType() == ChangeEvent.Type.LOANS_CHANGED) {
+                event.getIds().forEach(USER_LOANS::invalidate);
+            }
+        });
+    }
+
+    private final DataSource writeDataSource;
+    private final DataSource readDataSource;
+    private final RetryPolicy retryPolicy;
 
     public LoanDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this(DatabaseConnection.getInstance().getWriteDataSource(), DatabaseConnection.getInstance().getReadDataSource(),
+                DatabaseConnection.getInstance().getRetryPolicy());
+    }
+
+    public LoanDAO(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public LoanDAO(DataSource writeDataSource, DataSource readDataSource) {
+        this(writeDataSource, readDataSource, RetryPolicy.NONE);
+    }
+
+    public LoanDAO(DataSource writeDataSource, DataSource readDataSource, RetryPolicy retryPolicy) {
+        this.writeDataSource = writeDataSource;
+        this.readDataSource = readDataSource;
+        this.retryPolicy = retryPolicy;
+    }
+
+    public enum BorrowResult {
+        SUCCESS, NO_COPY_AVAILABLE, ERROR
+    }
+
+    public enum ReturnOutcome {
+        RETURNED, ALREADY_RETURNED, NOT_FOUND, FAILED
     }
 
     public boolean createLoan(Loan loan) {
-        String sql = "INSERT INTO loans (user_id, book_id, loan_date, due_date, status) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, loan.getUserId());
-            stmt.setInt(2, loan.getBookId());
-            stmt.setDate(3, Date.valueOf(loan.getLoanDate()));
-            stmt.setDate(4, Date.valueOf(loan.getDueDate()));
-            stmt.setString(5, loan.getStatus().toString());
-
-            boolean result = stmt.executeUpdate() > 0;
-
-            // Update book availability
-            if (result) {
-                updateBookAvailability(loan.getBookId(), -1);
-            }
+        return borrowBook(loan) == BorrowResult.SUCCESS;
+    }
+
+    /**
+     * Takes one copy and records the loan in a single transaction. The conditional decrement
+     * means concurrent borrowers of the last copy cannot oversell it.
+     */
+    public BorrowResult borrowBook(Loan loan) {
+        String takeCopySql = "UPDATE books SET available_copies = available_copies - 1, version = version + 1 " +
+                "WHERE id = ? AND available_copies > 0";
+        String insertSql = "INSERT INTO loans (user_id, book_id, loan_date, due_date, status) VALUES (?, ?, ?, ?, ?)";
+        try (Connection connection = writeDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement takeCopy = connection.prepareStatement(takeCopySql);
+                 PreparedStatement insert = connection.prepareStatement(insertSql)) {
+                takeCopy.setInt(1, loan.getBookId());
+                if (takeCopy.executeUpdate() == 0) {
+                    connection.rollback();
+                    return BorrowResult.NO_COPY_AVAILABLE;
+                }
+
+                insert.setInt(1, loan.getUserId());
+                insert.setInt(2, loan.getBookId());
+                insert.setDate(3, Date.valueOf(loan.getLoanDate()));
+                insert.setDate(4, Date.valueOf(loan.getDueDate()));
+                insert.setString(5, loan.getStatus().toString());
+                insert.executeUpdate();
 
-            return result;
+                connection.commit();
+                ChangeBus.getInstance().publish(ChangeEvent.of(ChangeEvent.Type.AVAILABILITY_CHANGED, loan.getBookId()));
+                ChangeBus.getInstance().publish(ChangeEvent.of(ChangeEvent.Type.LOANS_CHANGED, loan.getUserId()));
+                return BorrowResult.SUCCESS;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;
+            return BorrowResult.ERROR;
         }
     }
 
+    /**
+     * Marks the loan returned and puts the copy back. Returning an already returned loan is a no-op.
+     */
     public boolean returnBook(int loanId) {
-        String sql = "UPDATE loans SET return_date = ?, status = 'RETURNED' WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setDate(1, Date.valueOf(LocalDate.now()));
-            stmt.setInt(2, loanId);
-
-            boolean result = stmt.executeUpdate() > 0;
-
-            // Update book availability
-            if (result) {
-                Loan loan = getLoanById(loanId);
-                if (loan != null) {
-                    updateBookAvailability(loan.getBookId(), 1);
+        Date today = Date.valueOf(LocalDate.now());
+        try (Connection connection = writeDataSource.getConnection()) {
+            if (DatabaseBackend.of(connection).supportsMultiTableUpdate()) {
+                // One statement, one round trip; both rows are locked together
+                String sql = "UPDATE loans l JOIN books b ON b.id = l.book_id " +
+                        "SET l.return_date = ?, l.status = 'RETURNED', " +
+                        "b.available_copies = LEAST(b.total_copies, b.available_copies + 1), b.version = b.version + 1 " +
+                        "WHERE l.id = ? AND l.status <> 'RETURNED'";
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setDate(1, today);
+                    stmt.setInt(2, loanId);
+                    if (stmt.executeUpdate() == 0) {
+                        return false;
+                    }
                 }
+                publishReturned(connection, loanId);
+                return true;
             }
 
-            return result;
+            String closeLoanSql = "UPDATE loans SET return_date = ?, status = 'RETURNED' WHERE id = ? AND status <> 'RETURNED'";
+            String putBackSql = "UPDATE books SET available_copies = LEAST(total_copies, available_copies + 1), version = version + 1 " +
+                    "WHERE id = (SELECT book_id FROM loans WHERE id = ?)";
+            connection.setAutoCommit(false);
+            try (PreparedStatement closeLoan = connection.prepareStatement(closeLoanSql);
+                 PreparedStatement putBack = connection.prepareStatement(putBackSql)) {
+                closeLoan.setDate(1, today);
+                closeLoan.setInt(2, loanId);
+                if (closeLoan.executeUpdate() == 0) {
+                    connection.rollback();
+                    return false;
+                }
+                putBack.setInt(1, loanId);
+                putBack.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            publishReturned(connection, loanId);
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
 
-    private void updateBookAvailability(int bookId, int change) {
-        String sql = "UPDATE books SET available_copies = available_copies + ? WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, change);
-            stmt.setInt(2, bookId);
-            stmt.executeUpdate();
+    // The return statements don't hand back the book and borrower, so look them up to tell caches what changed
+    private static void publishReturned(Connection connection, int loanId) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT book_id, user_id FROM loans WHERE id = ?")) {
+            stmt.setInt(1, loanId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    ChangeBus.getInstance().publish(ChangeEvent.of(ChangeEvent.Type.AVAILABILITY_CHANGED, rs.getInt(1)));
+                    ChangeBus.getInstance().publish(ChangeEvent.of(ChangeEvent.Type.LOANS_CHANGED, rs.getInt(2)));
+                    return;
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        // The return is committed either way; without the ids, caches drop everything of that kind
+        ChangeBus.getInstance().publish(ChangeEvent.of(ChangeEvent.Type.AVAILABILITY_CHANGED));
+        ChangeBus.getInstance().publish(ChangeEvent.of(ChangeEvent.Type.LOANS_CHANGED));
     }
 
-    public List<Loan> getLoansByUserId(int userId) {
-        List<Loan> loans = new ArrayList<>();
-        String sql = "SELECT * FROM loans WHERE user_id = ? ORDER BY loan_date DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Loan loan = new Loan();
-                loan.setId(rs.getInt("id"));
-                loan.setUserId(rs.getInt("user_id"));
-                loan.setBookId(rs.getInt("book_id"));
-                loan.setLoanDate(rs.getDate("loan_date").toLocalDate());
-                loan.setDueDate(rs.getDate("due_date").toLocalDate());
-                Date returnDate = rs.getDate("return_date");
-                if (returnDate != null) {
-                    loan.setReturnDate(returnDate.toLocalDate());
+    /**
+     * Checks in many loans at once, e.g. a night's drop box. Everything happens in one
+     * transaction: the loans are locked and closed in chunks, and each affected book gets its
+     * copies back in a single aggregated update. If the transaction fails, every item is FAILED.
+     *
+     * @return an outcome per distinct loan id, in the order given
+     */
+    public Map<Integer, ReturnOutcome> returnBooks(Collection<Integer> loanIds) {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(loanIds));
+        distinct.remove(null);
+        Map<Integer, ReturnOutcome> outcomes = new LinkedHashMap<>();
+        for (Integer loanId : distinct) {
+            outcomes.put(loanId, ReturnOutcome.NOT_FOUND);
+        }
+        if (distinct.isEmpty()) {
+            return outcomes;
+        }
+
+        Date today = Date.valueOf(LocalDate.now());
+        try (Connection connection = writeDataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                List<Integer> open = new ArrayList<>();
+                Set<Integer> borrowers = new LinkedHashSet<>();
+                Map<Integer, Integer> copiesByBook = new LinkedHashMap<>();
+                for (List<Integer> chunk : chunks(distinct)) {
+                    String lockSql = "SELECT id, user_id, book_id, status FROM loans WHERE id IN (" +
+                            BookDAO.placeholders(slots(chunk.size())) + ") FOR UPDATE";
+                    try (PreparedStatement lock = connection.prepareStatement(lockSql)) {
+                        bindPadded(lock, 1, chunk);
+                        try (ResultSet rs = lock.executeQuery()) {
+                            while (rs.next()) {
+                                int loanId = rs.getInt("id");
+                                if ("RETURNED".equals(rs.getString("status"))) {
+                                    outcomes.put(loanId, ReturnOutcome.ALREADY_RETURNED);
+                                    continue;
+                                }
+                                outcomes.put(loanId, ReturnOutcome.RETURNED);
+                                open.add(loanId);
+                                borrowers.add(rs.getInt("user_id"));
+                                int bookId = rs.getInt("book_id");
+                                if (!rs.wasNull()) {
+                                    copiesByBook.merge(bookId, 1, Integer::sum);
+                                }
+                            }
+                        }
+                    }
                 }
-                loan.setStatus(Loan.Status.valueOf(rs.getString("status")));
-                loans.add(loan);
+
+                for (List<Integer> chunk : chunks(open)) {
+                    String closeSql = "UPDATE loans SET return_date = ?, status = 'RETURNED' WHERE id IN (" +
+                            BookDAO.placeholders(slots(chunk.size())) + ")";
+                    try (PreparedStatement closeLoans = connection.prepareStatement(closeSql)) {
+                        closeLoans.setDate(1, today);
+                        bindPadded(closeLoans, 2, chunk);
+                        closeLoans.executeUpdate();
+                    }
+                }
+
+                for (List<Integer> chunk : chunks(new ArrayList<>(copiesByBook.keySet()))) {
+                    // Padding repeats the last book; CASE takes its first match, so it's only counted once
+                    int slots = slots(chunk.size());
+                    StringBuilder putBackSql = new StringBuilder(
+                            "UPDATE books SET available_copies = LEAST(total_copies, available_copies + CASE id");
+                    for (int i = 0; i < slots; i++) {
+                        putBackSql.append(" WHEN ? THEN ?");
+                    }
+                    putBackSql.append(" ELSE 0 END), version = version + 1 WHERE id IN (").append(BookDAO.placeholders(slots)).append(")");
+                    try (PreparedStatement putBack = connection.prepareStatement(putBackSql.toString())) {
+                        int index = 1;
+                        for (int i = 0; i < slots; i++) {
+                            int bookId = chunk.get(Math.min(i, chunk.size() - 1));
+                            putBack.setInt(index++, bookId);
+                            putBack.setInt(index++, copiesByBook.get(bookId));
+                        }
+                        bindPadded(putBack, index, chunk);
+                        putBack.executeUpdate();
+                    }
+                }
+
+                connection.commit();
+                if (!copiesByBook.isEmpty()) {
+                    ChangeBus.getInstance().publish(new ChangeEvent(ChangeEvent.Type.AVAILABILITY_CHANGED, copiesByBook.keySet()));
+                }
+                if (!borrowers.isEmpty()) {
+                    ChangeBus.getInstance().publish(new ChangeEvent(ChangeEvent.Type.LOANS_CHANGED, borrowers));
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            outcomes.replaceAll((loanId, outcome) -> ReturnOutcome.FAILED);
         }
-        return loans;
+        return outcomes;
     }
 
-    public List<Loan> getAllLoans() {
-        List<Loan> loans = new ArrayList<>();
-        String sql = "SELECT * FROM loans ORDER BY loan_date DESC";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Loan loan = new Loan();
-                loan.setId(rs.getInt("id"));
-                loan.setUserId(rs.getInt("user_id"));
-                loan.setBookId(rs.getInt("book_id"));
-                loan.setLoanDate(rs.getDate("loan_date").toLocalDate());
-                loan.setDueDate(rs.getDate("due_date").toLocalDate());
-                Date returnDate = rs.getDate("return_date");
-                if (returnDate != null) {
-                    loan.setReturnDate(returnDate.toLocalDate());
+    /**
+     * Bulk check-in when only the book and its borrower are known. Each item closes that user's
+     * oldest open loan of that book, so the same pair listed twice returns two copies.
+     *
+     * @param items loans with only the book and user ids set
+     * @return one outcome per item, in the same order; NOT_FOUND if no open loan matches
+     */
+    public List<ReturnOutcome> returnBooksByBookAndUser(List<Loan> items) {
+        List<ReturnOutcome> results = new ArrayList<>(items.size());
+        if (items.isEmpty()) {
+            return results;
+        }
+
+        Set<Integer> bookIds = new LinkedHashSet<>();
+        for (Loan item : items) {
+            bookIds.add(item.getBookId());
+        }
+        Map<Long, Deque<Integer>> openLoans = new HashMap<>();
+        // Read from the primary: a replica may not have the latest borrows yet
+        try (Connection connection = writeDataSource.getConnection()) {
+            for (List<Integer> chunk : chunks(new ArrayList<>(bookIds))) {
+                String sql = "SELECT id, user_id, book_id FROM loans WHERE book_id IN (" +
+                        BookDAO.placeholders(slots(chunk.size())) + ") AND status <> 'RETURNED' ORDER BY loan_date, id";
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    bindPadded(stmt, 1, chunk);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            openLoans.computeIfAbsent(pairKey(rs.getInt("user_id"), rs.getInt("book_id")),
+                                    key -> new ArrayDeque<>()).add(rs.getInt("id"));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            for (int i = 0; i < items.size(); i++) {
+                results.add(ReturnOutcome.FAILED);
+            }
+            return results;
+        }
+
+        List<Integer> loanIds = new ArrayList<>(items.size());
+        for (Loan item : items) {
+            Deque<Integer> candidates = openLoans.get(pairKey(item.getUserId(), item.getBookId()));
+            loanIds.add(candidates != null ? candidates.poll() : null);
+        }
+        Map<Integer, ReturnOutcome> outcomes = returnBooks(loanIds);
+        for (Integer loanId : loanIds) {
+            results.add(loanId != null ? outcomes.get(loanId) : ReturnOutcome.NOT_FOUND);
+        }
+        return results;
+    }
+
+    /**
+     * @return users holding ACTIVE loans due before {@code today}, or null if the query failed
+     */
+    public Set<Integer> getUsersWithLoansPastDue(LocalDate today) {
+        String sql = "SELECT DISTINCT user_id FROM loans WHERE status = 'ACTIVE' AND due_date < ?";
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(today));
+            Set<Integer> users = new LinkedHashSet<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(rs.getInt(1));
+                }
+            }
+            return users;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Flips up to {@code limit} ACTIVE loans due before {@code today} to OVERDUE in one statement,
+     * a range scan on idx_loans_status_due. Bounding it keeps each transaction's locks short.
+     *
+     * @return the number of loans marked, or -1 if the update failed
+     */
+    public int markOverdueLoans(LocalDate today, int limit) {
+        String sql = "UPDATE loans SET status = 'OVERDUE' WHERE status = 'ACTIVE' AND due_date < ? LIMIT ?";
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(today));
+            stmt.setInt(2, limit);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private static long pairKey(int userId, int bookId) {
+        return ((long) userId << 32) | (bookId & 0xFFFFFFFFL);
+    }
+
+    private static List<List<Integer>> chunks(List<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BookDAO.MAX_IDS_PER_QUERY) {
+            chunks.add(ids.subList(from, Math.min(from + BookDAO.MAX_IDS_PER_QUERY, ids.size())));
+        }
+        return chunks;
+    }
+
+    // IN lists are padded to a power of two so only a handful of SQL shapes reach the statement cache
+    private static int slots(int count) {
+        int slots = Integer.highestOneBit(count);
+        return slots < count ? slots << 1 : slots;
+    }
+
+    private static void bindPadded(PreparedStatement stmt, int firstIndex, List<Integer> ids) throws SQLException {
+        int slots = slots(ids.size());
+        for (int i = 0; i < slots; i++) {
+            stmt.setInt(firstIndex + i, ids.get(Math.min(i, ids.size() - 1)));
+        }
+    }
+
+    /**
+     * Newest first, from the same per-user cache as {@link #getLoanDetailsByUserId(int)}.
+     */
+    public List<Loan> getLoansByUserId(int userId) {
+        return cachedLoanDetails(userId).stream()
+                .map(detail -> new Loan(detail.getLoan()))
+                .collect(Collectors.toList());
+    }
+
+    private static final String PAGE_FIRST =
+            "SELECT * FROM loans ORDER BY loan_date DESC, id DESC LIMIT ?";
+    private static final String PAGE_AFTER =
+            "SELECT * FROM loans WHERE loan_date <= ? AND (loan_date < ? OR (loan_date = ? AND id < ?)) " +
+                    "ORDER BY loan_date DESC, id DESC LIMIT ?";
+
+    /**
+     * Newest loans first, one page at a time, seeking past the previous page's last loan.
+     *
+     * @param after last loan of the previous page, or null for the first page
+     */
+    public Page<Loan> getLoansPage(Loan after, int pageSize) {
+        int size = Page.clampSize(pageSize);
+        String sql = after == null ? PAGE_FIRST : PAGE_AFTER;
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    int index = 1;
+                    if (after != null) {
+                        Date loanDate = Date.valueOf(after.getLoanDate());
+                        // Range bound on the index first, then the exact seek past the cursor
+                        stmt.setDate(index++, loanDate);
+                        stmt.setDate(index++, loanDate);
+                        stmt.setDate(index++, loanDate);
+                        stmt.setInt(index++, after.getId());
+                    }
+                    stmt.setInt(index, size + 1);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return Page.of(LoanRowMapper.INSTANCE.mapAll(sql, rs), size);
+                    }
                 }
-                loan.setStatus(Loan.Status.valueOf(rs.getString("status")));
-                loans.add(loan);
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Page.empty();
+    }
+
+    // Left joins keep loans whose book or user has since been deleted
+    private static final String DETAIL_SELECT =
+            "SELECT l.id, l.user_id, l.book_id, l.loan_date, l.due_date, l.return_date, l.status, " +
+                    "b.title AS book_title, b.author AS book_author, u.username, u.full_name " +
+                    "FROM loans l LEFT JOIN books b ON b.id = l.book_id LEFT JOIN users u ON u.id = l.user_id ";
+    private static final String DETAIL_ORDER = " ORDER BY l.loan_date DESC, l.id DESC";
+
+    public List<LoanDetail> getLoanDetailsByUserId(int userId) {
+        return cachedLoanDetails(userId).stream().map(LoanDetail::new).collect(Collectors.toList());
+    }
+
+    /**
+     * Filters the cached history, so switching filters doesn't query again.
+     */
+    public List<LoanDetail> getLoanDetailsByUserId(int userId, Loan.Status status) {
+        return cachedLoanDetails(userId).stream()
+                .filter(detail -> detail.getLoan().getStatus() == status)
+                .map(LoanDetail::new)
+                .collect(Collectors.toList());
+    }
+
+    // The cached loans are shared by every caller, so callers above only ever get copies
+    private List<LoanDetail> cachedLoanDetails(int userId) {
+        String sql = DETAIL_SELECT + "WHERE l.user_id = ?" + DETAIL_ORDER;
+        List<LoanDetail> details = USER_LOANS.getOrLoad(userId, id -> {
+            try {
+                return Collections.unmodifiableList(fetchLoanDetails(sql, id));
+            } catch (SQLException e) {
+                // Not cached, so the next call tries again
+                e.printStackTrace();
+                return null;
             }
+        });
+        return details != null ? details : Collections.emptyList();
+    }
+
+    public static LruCache<Integer, List<LoanDetail>> getUserLoansCache() {
+        return USER_LOANS;
+    }
+
+    public List<LoanDetail> getLoanDetailsByStatus(Loan.Status status) {
+        return queryLoanDetails(DETAIL_SELECT + "WHERE l.status = ?" + DETAIL_ORDER, status.name());
+    }
+
+    /**
+     * Newest loans first with book and borrower names, seeking past the previous page like {@link #getLoansPage}.
+     *
+     * @param after last loan of the previous page, or null for the first page
+     */
+    public Page<LoanDetail> getLoanDetailsPage(LoanDetail after, int pageSize) {
+        int size = Page.clampSize(pageSize);
+        List<LoanDetail> rows;
+        if (after == null) {
+            rows = queryLoanDetails(DETAIL_SELECT + DETAIL_ORDER + " LIMIT ?", size + 1);
+        } else {
+            Date loanDate = Date.valueOf(after.getLoan().getLoanDate());
+            rows = queryLoanDetails(DETAIL_SELECT +
+                            "WHERE l.loan_date <= ? AND (l.loan_date < ? OR (l.loan_date = ? AND l.id < ?))" +
+                            DETAIL_ORDER + " LIMIT ?",
+                    loanDate, loanDate, loanDate, after.getLoan().getId(), size + 1);
+        }
+        return Page.of(rows, size);
+    }
+
+    private List<LoanDetail> queryLoanDetails(String sql, Object... params) {
+        try {
+            return fetchLoanDetails(sql, params);
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return loans;
-    }
-
-    private Loan getLoanById(int id) {
-        String sql = "SELECT * FROM loans WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                Loan loan = new Loan();
-                loan.setId(rs.getInt("id"));
-                loan.setUserId(rs.getInt("user_id"));
-                loan.setBookId(rs.getInt("book_id"));
-                loan.setLoanDate(rs.getDate("loan_date").toLocalDate());
-                loan.setDueDate(rs.getDate("due_date").toLocalDate());
-                Date returnDate = rs.getDate("return_date");
-                if (returnDate != null) {
-                    loan.setReturnDate(returnDate.toLocalDate());
+        return new ArrayList<>();
+    }
+
+    private List<LoanDetail> fetchLoanDetails(String sql, Object... params) throws SQLException {
+        return retryPolicy.execute(() -> {
+            try (Connection connection = readDataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    stmt.setObject(i + 1, params[i]);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return LoanDetailRowMapper.INSTANCE.mapAll(sql, rs);
                 }
-                loan.setStatus(Loan.Status.valueOf(rs.getString("status")));
-                return loan;
             }
+        });
+    }
+
+    /**
+     * Every loan in id order, read lazily for exports and reports. Close the stream when done.
+     *
+     * @throws DataAccessException if the query fails, also while the stream is consumed
+     */
+    public Stream<Loan> streamLoans(int fetchSize) {
+        return LoanRowMapper.INSTANCE.stream(readDataSource, "SELECT * FROM loans ORDER BY id", fetchSize);
+    }
+
+    public Stream<Loan> streamLoans() {
+        return streamLoans(RowMapper.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Feeds every loan to {@code action} without holding the table in memory.
+     *
+     * @return false if reading failed part way
+     */
+    public boolean forEachLoan(Consumer<? super Loan> action) {
+        try (Stream<Loan> loans = streamLoans()) {
+            loans.forEach(action);
+            return true;
+        } catch (DataAccessException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public List<Loan> getAllLoans() {
+        String sql = "SELECT * FROM loans ORDER BY loan_date DESC";
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    return LoanRowMapper.INSTANCE.mapAll(sql, rs);
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return null;
+        return new ArrayList<>();
     }
 }
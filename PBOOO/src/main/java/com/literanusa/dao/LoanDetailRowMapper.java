@@ -0,0 +1,36 @@
+package com.literanusa.dao;
+
+import com.literanusa.model.Loan;
+import com.literanusa.model.LoanDetail;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+final class LoanDetailRowMapper extends RowMapper<LoanDetail> {
+    static final LoanDetailRowMapper INSTANCE = new LoanDetailRowMapper();
+
+    private static final int ID = 0, USER_ID = 1, BOOK_ID = 2, LOAN_DATE = 3, DUE_DATE = 4, RETURN_DATE = 5, STATUS = 6,
+            BOOK_TITLE = 7, BOOK_AUTHOR = 8, USERNAME = 9, FULL_NAME = 10;
+
+    private LoanDetailRowMapper() {
+        super("id", "user_id", "book_id", "loan_date", "due_date", "return_date", "status",
+                "book_title", "book_author", "username", "full_name");
+    }
+
+    @Override
+    protected LoanDetail mapRow(ResultSet rs, int[] idx) throws SQLException {
+        Loan loan = new Loan();
+        loan.setId(rs.getInt(idx[ID]));
+        loan.setUserId(rs.getInt(idx[USER_ID]));
+        loan.setBookId(rs.getInt(idx[BOOK_ID]));
+        loan.setLoanDate(rs.getObject(idx[LOAN_DATE], LocalDate.class));
+        loan.setDueDate(rs.getObject(idx[DUE_DATE], LocalDate.class));
+        loan.setReturnDate(rs.getObject(idx[RETURN_DATE], LocalDate.class));
+        loan.setStatus(Loan.Status.valueOf(rs.getString(idx[STATUS])));
+        return new LoanDetail(loan,
+                rs.getString(idx[BOOK_TITLE]),
+                rs.getString(idx[BOOK_AUTHOR]),
+                rs.getString(idx[USERNAME]),
+                rs.getString(idx[FULL_NAME]));
+    }
+}
@@ -0,0 +1,30 @@
+package com.literanusa.dao;
+
+import com.literanusa.model.Loan;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+final class LoanRowMapper extends RowMapper<Loan> {
+    static final LoanRowMapper INSTANCE = new LoanRowMapper();
+
+    private static final int ID = 0, USER_ID = 1, BOOK_ID = 2, LOAN_DATE = 3, DUE_DATE = 4, RETURN_DATE = 5, STATUS = 6;
+
+    private LoanRowMapper() {
+        super("id", "user_id", "book_id", "loan_date", "due_date", "return_date", "status");
+    }
+
+    @Override
+    protected Loan mapRow(ResultSet rs, int[] idx) throws SQLException {
+        Loan loan = new Loan();
+        loan.setId(rs.getInt(idx[ID]));
+        loan.setUserId(rs.getInt(idx[USER_ID]));
+        loan.setBookId(rs.getInt(idx[BOOK_ID]));
+        // getObject(LocalDate) skips the intermediate java.sql.Date
+        loan.setLoanDate(rs.getObject(idx[LOAN_DATE], LocalDate.class));
+        loan.setDueDate(rs.getObject(idx[DUE_DATE], LocalDate.class));
+        if (idx[RETURN_DATE] != ABSENT) loan.setReturnDate(rs.getObject(idx[RETURN_DATE], LocalDate.class));
+        loan.setStatus(Loan.Status.valueOf(rs.getString(idx[STATUS])));
+        return loan;
+    }
+}
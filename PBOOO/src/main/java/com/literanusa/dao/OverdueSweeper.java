@@ -0,0 +1,131 @@
+package com.literanusa.dao;
+
+import com.literanusa.cache.ChangeBus;
+import com.literanusa.cache.ChangeEvent;
+import com.literanusa.factory.DAOFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job that keeps {@code loans.status} honest: ACTIVE loans past their due date
+ * become OVERDUE, so views and statistics can filter on the column instead of comparing dates.
+ *
+ * Each run repeats a bounded set-based UPDATE until a chunk comes back short, then tells
+ * caches which borrowers' loans changed. The interval and chunk size come from
+ * -Dliteranusa.overdue.intervalMs and -Dliteranusa.overdue.chunkSize.
+ */
+public class OverdueSweeper {
+    private static OverdueSweeper instance;
+
+    private final LoanDAO loanDAO;
+    private final long intervalMs;
+    private final int chunkSize;
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private final AtomicLong totalMarked = new AtomicLong();
+    private volatile int lastRunMarked;
+    private volatile long lastRunMillis;
+    private volatile LocalDateTime lastRunAt;
+
+    public OverdueSweeper(LoanDAO loanDAO, long intervalMs, int chunkSize) {
+        this.loanDAO = loanDAO;
+        this.intervalMs = intervalMs;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public static synchronized OverdueSweeper getInstance() {
+        if (instance == null) {
+            instance = new OverdueSweeper(DAOFactory.getInstance().getLoanDAO(),
+                    Long.getLong("literanusa.overdue.intervalMs", 3600000L),
+                    Integer.getInteger("literanusa.overdue.chunkSize", 1000));
+        }
+        return instance;
+    }
+
+    /**
+     * Sweeps now, then every interval. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "overdue-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Runs one sweep on the calling thread.
+     *
+     * @return loans marked overdue by this run
+     */
+    public int sweep() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        int marked = 0;
+        boolean failed = false;
+        // Null means the lookup failed: sweep anyway and let caches drop every user's loans
+        Set<Integer> users = loanDAO.getUsersWithLoansPastDue(today);
+        while ((users == null || !users.isEmpty()) && !Thread.currentThread().isInterrupted()) {
+            int chunk = loanDAO.markOverdueLoans(today, chunkSize);
+            if (chunk < 0) {
+                failed = true;
+                break;
+            }
+            marked += chunk;
+            if (chunk < chunkSize) {
+                break;
+            }
+        }
+
+        if (marked > 0) {
+            ChangeBus.getInstance().publish(new ChangeEvent(ChangeEvent.Type.LOANS_CHANGED,
+                    users != null ? users : Collections.<Integer>emptySet()));
+        }
+
+        runs.incrementAndGet();
+        if (failed) {
+            failedRuns.incrementAndGet();
+        }
+        totalMarked.addAndGet(marked);
+        lastRunMarked = marked;
+        lastRunMillis = (System.nanoTime() - start) / 1_000_000L;
+        lastRunAt = LocalDateTime.now();
+        if (marked > 0 || failed) {
+            System.out.println("Overdue sweep marked " + marked + " loans in " + lastRunMillis + "ms" +
+                    (failed ? " (stopped by an error)" : ""));
+        }
+        return marked;
+    }
+
+    public long getRuns() { return runs.get(); }
+    public long getFailedRuns() { return failedRuns.get(); }
+    public long getTotalMarked() { return totalMarked.get(); }
+    public int getLastRunMarked() { return lastRunMarked; }
+    public long getLastRunMillis() { return lastRunMillis; }
+    public LocalDateTime getLastRunAt() { return lastRunAt; }
+
+    @Override
+    public String toString() {
+        return "OverdueSweeper[runs=" + runs.get() + ", failedRuns=" + failedRuns.get() + ", totalMarked=" +
+                totalMarked.get() + ", lastRunMarked=" + lastRunMarked + ", lastRunMillis=" + lastRunMillis + "]";
+    }
+}
@@ -0,0 +1,54 @@
+package com.literanusa.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * The last item doubles as the cursor: pass it back as {@code after} to get the next page.
+ * Queries fetch one row more than the page size to learn whether another page exists.
+ */
+public class Page<T> {
+    public static final int DEFAULT_SIZE = Integer.getInteger("literanusa.pageSize", 25);
+    public static final int MAX_SIZE = 500;
+
+    private final List<T> items;
+    private final boolean hasMore;
+
+    private Page(List<T> items, boolean hasMore) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * @param rows up to {@code pageSize + 1} rows, as fetched with {@code LIMIT pageSize + 1}
+     */
+    static <T> Page<T> of(List<T> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        return new Page<>(hasMore ? rows.subList(0, pageSize) : rows, hasMore);
+    }
+
+    static <T> Page<T> empty() {
+        return new Page<>(Collections.emptyList(), false);
+    }
+
+    static int clampSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_SIZE));
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * @return the cursor for the next page, or null if this page is empty
+     */
+    public T getLast() {
+        return items.isEmpty() ? null : items.get(items.size() - 1);
+    }
+}
@@ -0,0 +1,133 @@
+package com.literanusa.dao;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Maps result set rows to model objects by column index.
+ *
+ * Column positions are resolved from the result set metadata the first time a SQL string is seen
+ * and cached, so the per-row loop does no name lookups. A column the query doesn't return
+ * (for example an optional column on an older schema) resolves to 0 and is skipped by the mapper.
+ */
+abstract class RowMapper<T> {
+    protected static final int ABSENT = 0;
+
+    /** Rows fetched per round trip by {@link #stream}; -Dliteranusa.fetchSize overrides it. */
+    static final int DEFAULT_FETCH_SIZE = Integer.getInteger("literanusa.fetchSize", 500);
+
+    private final String[] columns;
+    private final ConcurrentMap<String, int[]> indexesBySql = new ConcurrentHashMap<>();
+
+    protected RowMapper(String... columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * @param indexes result set index of each column passed to the constructor, in the same order
+     */
+    protected abstract T mapRow(ResultSet rs, int[] indexes) throws SQLException;
+
+    public List<T> mapAll(String sql, ResultSet rs) throws SQLException {
+        int[] indexes = indexesFor(sql, rs);
+        List<T> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(mapRow(rs, indexes));
+        }
+        return rows;
+    }
+
+    public T mapFirst(String sql, ResultSet rs) throws SQLException {
+        return rs.next() ? mapRow(rs, indexesFor(sql, rs)) : null;
+    }
+
+    /**
+     * Runs a query and maps rows lazily as the stream is consumed, holding only one row at a time.
+     *
+     * The driver is asked to fetch {@code fetchSize} rows per round trip instead of buffering the
+     * whole result (MySQL needs useCursorFetch, which {@link com.literanusa.util.DatabaseBackend}
+     * enables). The stream owns the connection until it is closed, so always use try-with-resources.
+     */
+    public Stream<T> stream(DataSource dataSource, String sql, int fetchSize) {
+        Connection connection = null;
+        PreparedStatement stmt = null;
+        try {
+            connection = dataSource.getConnection();
+            // Not the single-argument form: that one is cached by the pool, and fetch settings would leak into it
+            stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            ResultSet rs = stmt.executeQuery();
+            int[] indexes = indexesFor(sql, rs);
+
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        action.accept(mapRow(rs, indexes));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new DataAccessException("Failed to read row of: " + sql, e);
+                    }
+                }
+            };
+            AutoCloseable[] resources = {rs, stmt, connection};
+            return StreamSupport.stream(rows, false).onClose(() -> closeAll(resources));
+        } catch (SQLException e) {
+            closeAll(stmt, connection);
+            throw new DataAccessException("Failed to open stream for: " + sql, e);
+        }
+    }
+
+    private static void closeAll(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                // Keep going so the connection still goes back to the pool
+                e.printStackTrace();
+            }
+        }
+    }
+
+    protected int[] indexesFor(String sql, ResultSet rs) throws SQLException {
+        int[] indexes = indexesBySql.get(sql);
+        if (indexes == null) {
+            indexes = resolve(rs.getMetaData());
+            indexesBySql.putIfAbsent(sql, indexes);
+        }
+        return indexes;
+    }
+
+    private int[] resolve(ResultSetMetaData metaData) throws SQLException {
+        int[] indexes = new int[columns.length];
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String label = metaData.getColumnLabel(i);
+            for (int c = 0; c < columns.length; c++) {
+                if (indexes[c] == ABSENT && columns[c].equalsIgnoreCase(label)) {
+                    indexes[c] = i;
+                }
+            }
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,51 @@
+package com.literanusa.dao;
+
+import com.literanusa.model.LibraryStatistics;
+import com.literanusa.util.DatabaseConnection;
+import com.literanusa.util.RetryPolicy;
+import javax.sql.DataSource;
+import java.sql.*;
+
+public class StatisticsDAO {
+    // One round trip; the loan counts are range scans on idx_loans_status_due rather than table scans
+    private static final String STATISTICS_SQL =
+            "SELECT (SELECT COUNT(*) FROM books) AS total_books, " +
+                    "(SELECT COALESCE(SUM(available_copies), 0) FROM books) AS available_copies, " +
+                    "(SELECT COUNT(*) FROM loans WHERE status = 'ACTIVE') AS active_loans, " +
+                    "(SELECT COUNT(*) FROM loans WHERE status = 'OVERDUE') AS overdue_loans";
+
+    private final DataSource dataSource;
+    private final RetryPolicy retryPolicy;
+
+    public StatisticsDAO() {
+        this(DatabaseConnection.getInstance().getReadDataSource(), DatabaseConnection.getInstance().getRetryPolicy());
+    }
+
+    public StatisticsDAO(DataSource dataSource) {
+        this(dataSource, RetryPolicy.NONE);
+    }
+
+    public StatisticsDAO(DataSource dataSource, RetryPolicy retryPolicy) {
+        this.dataSource = dataSource;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @return current totals, or null if the database couldn't be read
+     */
+    public LibraryStatistics getStatistics() {
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = dataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(STATISTICS_SQL);
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return new LibraryStatistics(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
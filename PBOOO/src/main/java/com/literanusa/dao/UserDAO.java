@@ -2,45 +2,49 @@ package com.literanusa.dao;
 
 import com.literanusa.model.User;
 import com.literanusa.util.DatabaseConnection;
+import com.literanusa.util.RetryPolicy;
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class UserDAO {
-    private Connection connection;
+    private final DataSource writeDataSource;
+    private final DataSource readDataSource;
+    private final RetryPolicy retryPolicy;
 
     public UserDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this(DatabaseConnection.getInstance().getWriteDataSource(), DatabaseConnection.getInstance().getReadDataSource(),
+                DatabaseConnection.getInstance().getRetryPolicy());
+    }
+
+    public UserDAO(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public UserDAO(DataSource writeDataSource, DataSource readDataSource) {
+        this(writeDataSource, readDataSource, RetryPolicy.NONE);
+    }
+
+    public UserDAO(DataSource writeDataSource, DataSource readDataSource, RetryPolicy retryPolicy) {
+        this.writeDataSource = writeDataSource;
+        this.readDataSource = readDataSource;
+        this.retryPolicy = retryPolicy;
     }
 
     public User authenticate(String username, String password) {
         String sql = "SELECT * FROM users WHERE username = ? AND password = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setEmail(rs.getString("email"));
-                user.setFullName(rs.getString("full_name"));
-                user.setRole(User.Role.valueOf(rs.getString("role")));
-
-                // Set additional profile fields if they exist
-                try {
-                    user.setPhone(rs.getString("phone"));
-                    user.setAddress(rs.getString("address"));
-                    user.setProfilePicture(rs.getString("profile_picture"));
-                } catch (SQLException e) {
-                    // Columns might not exist in older database versions
-                    System.out.println("Some profile columns not found: " + e.getMessage());
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, username);
+                    stmt.setString(2, password);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return UserRowMapper.INSTANCE.mapFirst(sql, rs);
+                    }
                 }
-
-                return user;
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -49,7 +53,8 @@ public class UserDAO {
 
     public boolean register(User user) {
         String sql = "INSERT INTO users (username, password, email, full_name, role) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, user.getUsername());
             stmt.setString(2, user.getPassword());
             stmt.setString(3, user.getEmail());
@@ -65,7 +70,8 @@ public class UserDAO {
 
     public boolean updateUser(User user) {
         String sql = "UPDATE users SET email = ?, full_name = ?, phone = ?, address = ? WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, user.getEmail());
             stmt.setString(2, user.getFullName());
             stmt.setString(3, user.getPhone());
@@ -81,7 +87,8 @@ public class UserDAO {
 
     public boolean updatePassword(int userId, String newPassword) {
         String sql = "UPDATE users SET password = ? WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, newPassword);
             stmt.setInt(2, userId);
 
@@ -94,7 +101,8 @@ public class UserDAO {
 
     public boolean updateProfilePicture(int userId, String profilePicture) {
         String sql = "UPDATE users SET profile_picture = ? WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = writeDataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, profilePicture);
             stmt.setInt(2, userId);
 
@@ -106,62 +114,33 @@ public class UserDAO {
     }
 
     public List<User> getAllUsers() {
-        List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM users";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setUsername(rs.getString("username"));
-                user.setEmail(rs.getString("email"));
-                user.setFullName(rs.getString("full_name"));
-                user.setRole(User.Role.valueOf(rs.getString("role")));
-
-                // Set additional fields safely
-                try {
-                    user.setPhone(rs.getString("phone"));
-                    user.setAddress(rs.getString("address"));
-                    user.setProfilePicture(rs.getString("profile_picture"));
-                } catch (SQLException e) {
-                    // Ignore if columns don't exist
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    return UserRowMapper.INSTANCE.mapAll(sql, rs);
                 }
-
-                users.add(user);
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return users;
+        return new ArrayList<>();
     }
 
     public User getUserById(int id) {
         String sql = "SELECT * FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                User user = new User();
-                user.setId(rs.getInt("id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setEmail(rs.getString("email"));
-                user.setFullName(rs.getString("full_name"));
-                user.setRole(User.Role.valueOf(rs.getString("role")));
-
-                // Set additional fields safely
-                try {
-                    user.setPhone(rs.getString("phone"));
-                    user.setAddress(rs.getString("address"));
-                    user.setProfilePicture(rs.getString("profile_picture"));
-                } catch (SQLException e) {
-                    // Ignore if columns don't exist
+        try {
+            return retryPolicy.execute(() -> {
+                try (Connection connection = readDataSource.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setInt(1, id);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return UserRowMapper.INSTANCE.mapFirst(sql, rs);
+                    }
                 }
-
-                return user;
-            }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,36 @@
+package com.literanusa.dao;
+
+import com.literanusa.model.User;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+final class UserRowMapper extends RowMapper<User> {
+    static final UserRowMapper INSTANCE = new UserRowMapper();
+
+    private static final int ID = 0, USERNAME = 1, PASSWORD = 2, EMAIL = 3, FULL_NAME = 4, ROLE = 5,
+            PHONE = 6, ADDRESS = 7, PROFILE_PICTURE = 8, CREATED_AT = 9;
+
+    private UserRowMapper() {
+        super("id", "username", "password", "email", "full_name", "role",
+                "phone", "address", "profile_picture", "created_at");
+    }
+
+    @Override
+    protected User mapRow(ResultSet rs, int[] idx) throws SQLException {
+        User user = new User();
+        user.setId(rs.getInt(idx[ID]));
+        user.setUsername(rs.getString(idx[USERNAME]));
+        if (idx[PASSWORD] != ABSENT) user.setPassword(rs.getString(idx[PASSWORD]));
+        user.setEmail(rs.getString(idx[EMAIL]));
+        user.setFullName(rs.getString(idx[FULL_NAME]));
+        user.setRole(User.Role.valueOf(rs.getString(idx[ROLE])));
+
+        // Profile columns only exist on newer schemas
+        if (idx[PHONE] != ABSENT) user.setPhone(rs.getString(idx[PHONE]));
+        if (idx[ADDRESS] != ABSENT) user.setAddress(rs.getString(idx[ADDRESS]));
+        if (idx[PROFILE_PICTURE] != ABSENT) user.setProfilePicture(rs.getString(idx[PROFILE_PICTURE]));
+        if (idx[CREATED_AT] != ABSENT) user.setCreatedAt(rs.getObject(idx[CREATED_AT], LocalDateTime.class));
+        return user;
+    }
+}
@@ -1,7 +1,9 @@
 package com.literanusa.factory;
 
 import com.literanusa.dao.BookDAO;
+import com.literanusa.dao.BookImporter;
 import com.literanusa.dao.LoanDAO;
+import com.literanusa.dao.StatisticsDAO;
 import com.literanusa.dao.UserDAO;
 
 public class DAOFactory {
@@ -27,4 +29,12 @@ public class DAOFactory {
     public LoanDAO getLoanDAO() {
         return new LoanDAO();
     }
+
+    public StatisticsDAO getStatisticsDAO() {
+        return new StatisticsDAO();
+    }
+
+    public BookImporter getBookImporter() {
+        return new BookImporter();
+    }
 }
@@ -14,6 +14,11 @@ public class Book {
     private int totalCopies;
     private String coverImage;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    // Bumped by every write to the row
+    private long version;
+    // Loaded for a list or grid, without the synopsis
+    private boolean summary;
 
     // Constructors
     public Book() {}
@@ -29,6 +34,23 @@ public class Book {
         this.totalCopies = 1;
     }
 
+    public Book(Book other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.author = other.author;
+        this.isbn = other.isbn;
+        this.genre = other.genre;
+        this.synopsis = other.synopsis;
+        this.rating = other.rating;
+        this.availableCopies = other.availableCopies;
+        this.totalCopies = other.totalCopies;
+        this.coverImage = other.coverImage;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.version = other.version;
+        this.summary = other.summary;
+    }
+
     // Getters and Setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
@@ -63,6 +85,15 @@ public class Book {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public boolean isSummary() { return summary; }
+    public void setSummary(boolean summary) { this.summary = summary; }
+
     // Tambahkan method untuk handle cover image
     public String getCoverImagePath() {
         if (coverImage != null && !coverImage.isEmpty()) {
@@ -0,0 +1,23 @@
+package com.literanusa.model;
+
+/**
+ * Headline numbers for the admin dashboard, taken at one point in time.
+ */
+public class LibraryStatistics {
+    private final int totalBooks;
+    private final int availableCopies;
+    private final int activeLoans;
+    private final int overdueLoans;
+
+    public LibraryStatistics(int totalBooks, int availableCopies, int activeLoans, int overdueLoans) {
+        this.totalBooks = totalBooks;
+        this.availableCopies = availableCopies;
+        this.activeLoans = activeLoans;
+        this.overdueLoans = overdueLoans;
+    }
+
+    public int getTotalBooks() { return totalBooks; }
+    public int getAvailableCopies() { return availableCopies; }
+    public int getActiveLoans() { return activeLoans; }
+    public int getOverdueLoans() { return overdueLoans; }
+}
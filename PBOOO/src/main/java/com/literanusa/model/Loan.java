@@ -26,6 +26,16 @@ public class Loan {
         this.status = Status.ACTIVE;
     }
 
+    public Loan(Loan other) {
+        this.id = other.id;
+        this.userId = other.userId;
+        this.bookId = other.bookId;
+        this.loanDate = other.loanDate;
+        this.dueDate = other.dueDate;
+        this.returnDate = other.returnDate;
+        this.status = other.status;
+    }
+
     // Getters and Setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
@@ -0,0 +1,43 @@
+package com.literanusa.model;
+
+/**
+ * Read-only view of a loan together with the book and borrower names shown next to it,
+ * as returned by one joined query.
+ */
+public class LoanDetail {
+    private final Loan loan;
+    private final String bookTitle;
+    private final String bookAuthor;
+    private final String username;
+    private final String userFullName;
+
+    public LoanDetail(Loan loan, String bookTitle, String bookAuthor, String username, String userFullName) {
+        this.loan = loan;
+        this.bookTitle = bookTitle;
+        this.bookAuthor = bookAuthor;
+        this.username = username;
+        this.userFullName = userFullName;
+    }
+
+    /** Copies the loan too, since it is the one mutable part. */
+    public LoanDetail(LoanDetail other) {
+        this(new Loan(other.loan), other.bookTitle, other.bookAuthor, other.username, other.userFullName);
+    }
+
+    public Loan getLoan() { return loan; }
+
+    /** Null if the book no longer exists. */
+    public String getBookTitle() { return bookTitle; }
+    public String getBookAuthor() { return bookAuthor; }
+
+    /** Null if the user no longer exists. */
+    public String getUsername() { return username; }
+    public String getUserFullName() { return userFullName; }
+
+    public String getBorrowerName() {
+        if (userFullName != null && !userFullName.trim().isEmpty()) {
+            return userFullName;
+        }
+        return username != null ? username : "User " + loan.getUserId();
+    }
+}
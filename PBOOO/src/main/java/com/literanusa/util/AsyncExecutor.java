@@ -0,0 +1,232 @@
+package com.literanusa.util;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs database work off the Swing event thread.
+ *
+ * Uses virtual threads when the runtime has them (Java 21+) and a fixed platform pool otherwise.
+ * The number of queued plus running tasks is bounded; beyond that, new tasks fail fast with
+ * {@link RejectedExecutionException}. Cancelling or timing out a returned future interrupts the task;
+ * writes go through {@link #submitWrite} instead, which never times out or interrupts.
+ */
+public class AsyncExecutor implements Executor {
+    private static AsyncExecutor instance;
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore capacity;
+    private final long defaultTimeoutMs;
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+
+    private AsyncExecutor() {
+        int threads = Integer.getInteger("literanusa.async.threads", 8);
+        int maxPending = Integer.getInteger("literanusa.async.maxPending", 256);
+        boolean preferVirtual = Boolean.parseBoolean(System.getProperty("literanusa.async.virtualThreads", "true"));
+
+        ExecutorService virtual = preferVirtual ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "db-async-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.capacity = new Semaphore(maxPending + threads);
+        this.defaultTimeoutMs = Long.getLong("literanusa.async.timeoutMs", 15000L);
+    }
+
+    public static synchronized AsyncExecutor getInstance() {
+        if (instance == null) {
+            instance = new AsyncExecutor();
+        }
+        return instance;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Runtime older than Java 21
+            return null;
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, defaultTimeoutMs);
+    }
+
+    /**
+     * @param timeoutMs completes the future with {@link TimeoutException} after this long; 0 means no timeout
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, long timeoutMs) {
+        return submit(task, timeoutMs, true);
+    }
+
+    /**
+     * For tasks that commit. A timeout would report a failure for a transaction that may still
+     * commit, and an interrupt could break it off partway, so there is neither; cancelling only
+     * skips the task if it hasn't started.
+     */
+    public <T> CompletableFuture<T> submitWrite(Callable<T> task) {
+        return submit(task, 0, false);
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task, long timeoutMs, boolean interruptible) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!capacity.tryAcquire()) {
+            rejected.incrementAndGet();
+            result.completeExceptionally(new RejectedExecutionException("Too many pending database requests"));
+            return result;
+        }
+        submitted.incrementAndGet();
+
+        Task<T> work = new Task<>(task, result);
+        try {
+            executor.execute(work);
+        } catch (RejectedExecutionException e) {
+            capacity.release();
+            rejected.incrementAndGet();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                cancelled.incrementAndGet();
+                if (interruptible) {
+                    work.interrupt();
+                }
+            } else if (unwrap(error) instanceof TimeoutException) {
+                timedOut.incrementAndGet();
+                work.interrupt();
+            }
+        });
+        if (timeoutMs > 0) {
+            result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * Lets follow-up stages such as {@code thenApplyAsync(fn, executor)} stay off the event thread.
+     */
+    @Override
+    public void execute(Runnable command) {
+        submit(() -> {
+            command.run();
+            return null;
+        }, 0).whenComplete((value, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+            }
+        });
+    }
+
+    private class Task<T> implements Runnable {
+        private final Callable<T> callable;
+        private final CompletableFuture<T> result;
+        private Thread runner;
+
+        Task(Callable<T> callable, CompletableFuture<T> result) {
+            this.callable = callable;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            try {
+                synchronized (this) {
+                    // Skip requests that went stale while they were queued
+                    if (result.isDone()) {
+                        return;
+                    }
+                    runner = Thread.currentThread();
+                }
+                execute();
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                // Don't let a late cancel leak into the next task on this thread
+                Thread.interrupted();
+                capacity.release();
+            }
+        }
+
+        private void execute() {
+            running.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                result.complete(callable.call());
+                completed.incrementAndGet();
+            } catch (Throwable t) {
+                failed.incrementAndGet();
+                result.completeExceptionally(t);
+            } finally {
+                totalRunNanos.addAndGet(System.nanoTime() - start);
+                running.decrementAndGet();
+            }
+        }
+
+        synchronized void interrupt() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wraps a completion callback so it runs on the Swing event thread.
+     */
+    public static <T> BiConsumer<T, Throwable> onEdt(BiConsumer<T, Throwable> callback) {
+        return (value, error) -> SwingUtilities.invokeLater(() -> callback.accept(value, unwrap(error)));
+    }
+
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    public boolean isVirtualThreads() { return virtualThreads; }
+    public int getRunning() { return running.get(); }
+    public long getSubmitted() { return submitted.get(); }
+    public long getCompleted() { return completed.get(); }
+    public long getFailed() { return failed.get(); }
+    public long getCancelled() { return cancelled.get(); }
+    public long getTimedOut() { return timedOut.get(); }
+    public long getRejected() { return rejected.get(); }
+
+    public double getAverageRunMillis() {
+        long finished = completed.get() + failed.get();
+        return finished == 0 ? 0.0 : totalRunNanos.get() / 1_000_000.0 / finished;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AsyncExecutor[%s, running=%d, submitted=%d, completed=%d, failed=%d, " +
+                        "cancelled=%d, timedOut=%d, rejected=%d, avgRun=%.3fms]",
+                virtualThreads ? "virtual" : "platform", running.get(), submitted.get(), completed.get(),
+                failed.get(), cancelled.get(), timedOut.get(), rejected.get(), getAverageRunMillis());
+    }
+}
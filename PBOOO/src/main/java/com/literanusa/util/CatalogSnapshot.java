@@ -0,0 +1,256 @@
+package com.literanusa.util;
+
+import com.literanusa.model.Book;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact on-disk copy of the catalog summaries, so a dashboard can paint before the database
+ * answers.
+ *
+ * Layout, big-endian: magic, format version, the database URL the books came from, the newest
+ * updated_at, then the author and genre dictionaries and the books, and a CRC32 of everything
+ * before it. Strings are UTF-8 with an unsigned 16-bit length prefix (0xFFFF for null); books
+ * refer to authors and genres by dictionary index, since both repeat heavily. Files are read in
+ * one go and replaced atomically, so a reader never sees a partial write.
+ */
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x4C4E4353; // "LNCS"
+    private static final short FORMAT_VERSION = 1;
+    private static final int NULL_STRING = 0xFFFF;
+
+    private final String source;
+    private final LocalDateTime updatedWatermark;
+    private final List<Book> books;
+
+    public CatalogSnapshot(String source, LocalDateTime updatedWatermark, List<Book> books) {
+        this.source = source;
+        this.updatedWatermark = updatedWatermark;
+        this.books = Collections.unmodifiableList(new ArrayList<>(books));
+    }
+
+    /** @return the database URL the books were read from */
+    public String getSource() { return source; }
+
+    /** @return the newest updated_at among the books, by the database's clock; null if there are none */
+    public LocalDateTime getUpdatedWatermark() { return updatedWatermark; }
+
+    /** @return the books in catalog order, as summaries */
+    public List<Book> getBooks() { return books; }
+
+    /**
+     * @return the snapshot, or null if there is no file
+     * @throws IOException if the file can't be read or is damaged
+     */
+    public static CatalogSnapshot read(Path file) throws IOException {
+        // Read onto the heap rather than mapped: a mapping lives until GC, and on Windows the
+        // file can't be replaced while it does
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try {
+            if (buffer.limit() < 10 || buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                throw new IOException("Not a catalog snapshot: " + file);
+            }
+            ByteBuffer content = buffer.duplicate();
+            content.position(0).limit(buffer.limit() - 4);
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+                throw new IOException("Catalog snapshot is damaged: " + file);
+            }
+
+            String source = readString(buffer);
+            LocalDateTime watermark = readTime(buffer);
+            String[] authors = readDictionary(buffer);
+            String[] genres = readDictionary(buffer);
+            int count = buffer.getInt();
+            List<Book> books = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Book book = new Book();
+                book.setId(buffer.getInt());
+                book.setTitle(readString(buffer));
+                book.setAuthor(lookup(authors, buffer.getInt()));
+                book.setIsbn(readString(buffer));
+                book.setGenre(lookup(genres, buffer.getInt()));
+                book.setRating(buffer.getShort() / 100.0);
+                book.setAvailableCopies(buffer.getInt());
+                book.setTotalCopies(buffer.getInt());
+                book.setCoverImage(readString(buffer));
+                book.setVersion(buffer.getLong());
+                book.setUpdatedAt(readTime(buffer));
+                book.setSummary(true);
+                books.add(book);
+            }
+            return new CatalogSnapshot(source, watermark, books);
+        } catch (RuntimeException e) {
+            // Buffer underflow or a bad index; the CRC makes this unlikely but not impossible
+            throw new IOException("Catalog snapshot is damaged: " + file, e);
+        }
+    }
+
+    /**
+     * Writes to a temporary file next to the target, then moves it into place.
+     */
+    public void write(Path file) throws IOException {
+        Map<String, Integer> authorIndex = new HashMap<>();
+        Map<String, Integer> genreIndex = new HashMap<>();
+        List<String> authors = new ArrayList<>();
+        List<String> genres = new ArrayList<>();
+        for (Book book : books) {
+            index(book.getAuthor(), authorIndex, authors);
+            index(book.getGenre(), genreIndex, genres);
+        }
+
+        ByteArrayBuilder out = new ByteArrayBuilder(64 + books.size() * 64);
+        out.putInt(MAGIC);
+        out.putShort(FORMAT_VERSION);
+        writeString(out, source);
+        writeTime(out, updatedWatermark);
+        writeDictionary(out, authors);
+        writeDictionary(out, genres);
+        out.putInt(books.size());
+        for (Book book : books) {
+            out.putInt(book.getId());
+            writeString(out, book.getTitle());
+            out.putInt(book.getAuthor() != null ? authorIndex.get(book.getAuthor()) : -1);
+            writeString(out, book.getIsbn());
+            out.putInt(book.getGenre() != null ? genreIndex.get(book.getGenre()) : -1);
+            out.putShort((short) Math.round(book.getRating() * 100));
+            out.putInt(book.getAvailableCopies());
+            out.putInt(book.getTotalCopies());
+            writeString(out, book.getCoverImage());
+            out.putLong(book.getVersion());
+            writeTime(out, book.getUpdatedAt());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), 0, out.size());
+        out.putInt((int) crc.getValue());
+
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer bytes = ByteBuffer.wrap(out.array(), 0, out.size());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void index(String value, Map<String, Integer> index, List<String> values) {
+        if (value != null && !index.containsKey(value)) {
+            index.put(value, values.size());
+            values.add(value);
+        }
+    }
+
+    private static String lookup(String[] dictionary, int index) {
+        return index < 0 ? null : dictionary[index];
+    }
+
+    private static String[] readDictionary(ByteBuffer buffer) {
+        String[] values = new String[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(buffer);
+        }
+        return values;
+    }
+
+    private static void writeDictionary(ByteArrayBuilder out, List<String> values) throws IOException {
+        out.putInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(ByteArrayBuilder out, String value) throws IOException {
+        if (value == null) {
+            out.putShort((short) NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IOException("String too long for a catalog snapshot: " + bytes.length + " bytes");
+        }
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    // Stamps are the database's local times, so they're stored as-is rather than converted to an instant
+    private static LocalDateTime readTime(ByteBuffer buffer) {
+        long millis = buffer.getLong();
+        return millis == Long.MIN_VALUE ? null
+                : LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static void writeTime(ByteArrayBuilder out, LocalDateTime time) {
+        out.putLong(time == null ? Long.MIN_VALUE : time.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    /**
+     * Growable big-endian byte buffer; the snapshot's size isn't known until the dictionaries are built.
+     */
+    private static final class ByteArrayBuilder {
+        private ByteBuffer buffer;
+
+        ByteArrayBuilder(int capacity) {
+            buffer = ByteBuffer.allocate(capacity);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        void put(byte[] bytes) { ensure(bytes.length); buffer.put(bytes); }
+        void putShort(short value) { ensure(2); buffer.putShort(value); }
+        void putInt(int value) { ensure(4); buffer.putInt(value); }
+        void putLong(long value) { ensure(8); buffer.putLong(value); }
+        byte[] array() { return buffer.array(); }
+        int size() { return buffer.position(); }
+    }
+}
@@ -0,0 +1,121 @@
+package com.literanusa.util;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stops hammering a database that is down.
+ *
+ * After a run of consecutive connection failures the breaker opens and every borrow fails
+ * immediately with {@link OpenException} instead of waiting on a TCP timeout. Once the open
+ * period has passed a single trial borrow is let through; its outcome closes the breaker
+ * again or re-opens it for another period.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Thrown instead of attempting a connection while the breaker is open.
+     */
+    public static class OpenException extends SQLTransientConnectionException {
+        private static final long serialVersionUID = 1L;
+
+        OpenException(String message) {
+            super(message);
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private final AtomicLong openCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    public CircuitBreaker(String name, int failureThreshold, long openMs) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openMs * 1_000_000L;
+    }
+
+    /**
+     * @throws OpenException if the database is considered down and no trial is due yet
+     */
+    public synchronized void acquirePermission() throws OpenException {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            return;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return;
+        }
+        rejectedCount.incrementAndGet();
+        long retryInMs = Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000L);
+        throw new OpenException("Database '" + name + "' is unavailable, not retrying for another " + retryInMs + "ms");
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        failureCount.incrementAndGet();
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            trialInFlight = false;
+            openCount.incrementAndGet();
+            System.err.println("Circuit breaker for database '" + name + "' opened after " +
+                    consecutiveFailures + " consecutive connection failures");
+        }
+    }
+
+    /**
+     * Whether an error means the link to the server is gone, as opposed to a problem with the statement.
+     */
+    public static boolean isConnectionFailure(SQLException e) {
+        if (e instanceof OpenException) {
+            return false;
+        }
+        String sqlState = e.getSQLState();
+        return e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLRecoverableException
+                || (sqlState != null && sqlState.startsWith("08"));
+    }
+
+    public synchronized State getState() {
+        // Report a breaker whose open period has run out as ready for a trial
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public long getOpenCount() { return openCount.get(); }
+    public long getRejectedCount() { return rejectedCount.get(); }
+    public long getFailureCount() { return failureCount.get(); }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker[" + name + ", state=" + getState() + ", opened=" + openCount.get() +
+                ", rejected=" + rejectedCount.get() + ", failures=" + failureCount.get() + "]";
+    }
+}
@@ -0,0 +1,534 @@
+package com.literanusa.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * Callers borrow with {@link #getConnection()} and give the connection back by closing it,
+ * so DAOs can simply use try-with-resources per operation.
+ *
+ * Connections that report a lost link are discarded instead of being returned to the idle
+ * set, and a {@link CircuitBreaker} makes borrows fail fast while the server is unreachable.
+ */
+public class ConnectionPool implements DataSource, ConnectionPoolMXBean {
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final String name;
+    private final DatabaseConfig config;
+    private final ConnectionFactory factory;
+    private final CircuitBreaker breaker;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    private volatile boolean shutdown;
+
+    public ConnectionPool(String name, DatabaseConfig config, ConnectionFactory factory) {
+        this.name = name;
+        this.config = config;
+        this.factory = factory;
+        this.permits = new Semaphore(config.getPoolMaxSize(), true);
+        this.breaker = new CircuitBreaker(name, config.getBreakerFailureThreshold(), config.getBreakerOpenMs());
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-" + name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getHousekeepingIntervalMs();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool '" + name + "' has been shut down");
+        }
+
+        long start = System.nanoTime();
+        waiters.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(config.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTransientConnectionException("Timed out after " + config.getBorrowTimeoutMs() +
+                        "ms waiting for a connection from pool '" + name + "' " + getStats());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            breaker.acquirePermission();
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                destroy(pooled);
+            }
+            if (pooled == null) {
+                try {
+                    pooled = new PooledConnection(factory.create());
+                } catch (SQLException | RuntimeException e) {
+                    breaker.recordFailure();
+                    throw e;
+                }
+                createdCount.incrementAndGet();
+            }
+            breaker.recordSuccess();
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowStack = config.getLeakDetectionThresholdMs() > 0
+                    ? new Throwable("Connection borrowed by " + Thread.currentThread().getName())
+                    : null;
+            pooled.leakReported = false;
+            active.add(pooled);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections use the configured credentials");
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        // Skip the round trip for connections that were in use a moment ago
+        if (System.currentTimeMillis() - pooled.lastUsedAt < config.getValidationIntervalMs()) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        active.remove(pooled);
+        try {
+            if (shutdown || pooled.broken || pooled.physical.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (pooled.physical.isReadOnly()) {
+                pooled.physical.setReadOnly(false);
+            }
+            pooled.physical.clearWarnings();
+            pooled.lastUsedAt = System.currentTimeMillis();
+            pooled.borrowStack = null;
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        destroyedCount.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Connection is already broken, nothing left to clean up
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        // Oldest idle connections sit at the tail because returns are pushed to the head
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && idle.size() + active.size() > config.getPoolMinIdle()) {
+            PooledConnection pooled = it.next();
+            if (now - pooled.lastUsedAt > config.getIdleTimeoutMs() && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakDetectionThresholdMs();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : active) {
+            Throwable stack = pooled.borrowStack;
+            if (!pooled.leakReported && stack != null && now - pooled.borrowedAt > threshold) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak in pool '" + name + "': connection held for " +
+                        (now - pooled.borrowedAt) + "ms");
+                stack.printStackTrace();
+            }
+        }
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(active.size(), idle.size(), waiters.get(), config.getPoolMaxSize(),
+                borrowCount.get(), timeoutCount.get(), totalWaitNanos.get(), maxWaitNanos.get(),
+                createdCount.get(), destroyedCount.get(), leakCount.get(),
+                statementCacheHits.get(), statementCacheMisses.get(), statementCacheEvictions.get());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Flags a connection whose link failed so it is closed on return rather than reused.
+     */
+    private void onFailure(PooledConnection pooled, Throwable error) {
+        if (error instanceof SQLException && CircuitBreaker.isConnectionFailure((SQLException) error)) {
+            pooled.broken = true;
+            breaker.recordFailure();
+        }
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    // JMX attributes
+
+    @Override public int getActiveConnections() { return active.size(); }
+    @Override public int getIdleConnections() { return idle.size(); }
+    @Override public int getWaitingThreads() { return waiters.get(); }
+    @Override public int getMaxPoolSize() { return config.getPoolMaxSize(); }
+    @Override public long getBorrowCount() { return borrowCount.get(); }
+    @Override public long getBorrowTimeoutCount() { return timeoutCount.get(); }
+    @Override public double getAverageWaitMillis() { return getStats().getAverageWaitMillis(); }
+    @Override public double getMaxWaitMillis() { return getStats().getMaxWaitMillis(); }
+    @Override public long getLeakCount() { return leakCount.get(); }
+    @Override public long getStatementCacheHits() { return statementCacheHits.get(); }
+    @Override public long getStatementCacheMisses() { return statementCacheMisses.get(); }
+    @Override public long getStatementCacheEvictions() { return statementCacheEvictions.get(); }
+    @Override public String getCircuitState() { return breaker.getState().name(); }
+    @Override public long getCircuitOpenCount() { return breaker.getOpenCount(); }
+    @Override public long getCircuitRejectedCount() { return breaker.getRejectedCount(); }
+
+    // DataSource boilerplate
+
+    @Override public PrintWriter getLogWriter() { return null; }
+    @Override public void setLogWriter(PrintWriter out) {}
+    @Override public void setLoginTimeout(int seconds) {}
+    @Override public int getLoginTimeout() { return 0; }
+    @Override public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Hands out a cached statement for the SQL when one is free on this connection,
+     * otherwise prepares a new one and caches it (evicting the least recently used).
+     */
+    private PreparedStatement prepareCached(PooledConnection pooled, Connection handle, String sql) throws SQLException {
+        int cacheSize = config.getStatementCacheSize();
+        if (cacheSize <= 0) {
+            return pooled.physical.prepareStatement(sql);
+        }
+
+        CachedStatement cached = pooled.statements.get(sql);
+        if (cached != null && !cached.inUse) {
+            statementCacheHits.incrementAndGet();
+            cached.inUse = true;
+            return cached.newHandle(handle);
+        }
+
+        statementCacheMisses.incrementAndGet();
+        PreparedStatement statement = pooled.physical.prepareStatement(sql);
+        if (cached != null) {
+            // Same SQL is already open on this connection (nested use); don't cache the second copy
+            return statement;
+        }
+
+        cached = new CachedStatement(pooled, sql, statement);
+        cached.inUse = true;
+        pooled.statements.put(sql, cached);
+        Iterator<CachedStatement> eldest = pooled.statements.values().iterator();
+        while (pooled.statements.size() > cacheSize && eldest.hasNext()) {
+            CachedStatement victim = eldest.next();
+            eldest.remove();
+            statementCacheEvictions.incrementAndGet();
+            victim.evicted = true;
+            if (!victim.inUse) {
+                victim.closePhysical();
+            }
+        }
+        return cached.newHandle(handle);
+    }
+
+    private class PooledConnection {
+        final Connection physical;
+        // Access-ordered, so iteration starts at the least recently used statement
+        final Map<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+        volatile long lastUsedAt = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile Throwable borrowStack;
+        volatile boolean leakReported;
+        volatile boolean broken;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        ConnectionPool pool() {
+            return ConnectionPool.this;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+    }
+
+    /**
+     * One handle per borrow, so a stale reference kept after close() cannot touch
+     * a connection that has since been handed to someone else.
+     */
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "prepareStatement":
+                    if (args.length == 1 && !closed) {
+                        return prepareCached(pooled, (Connection) proxy, (String) args[0]);
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + name + "]" + pooled.physical;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                onFailure(pooled, e.getCause());
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static class CachedStatement {
+        final PooledConnection owner;
+        final String sql;
+        final PreparedStatement physical;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PooledConnection owner, String sql, PreparedStatement physical) {
+            this.owner = owner;
+            this.sql = sql;
+            this.physical = physical;
+        }
+
+        PreparedStatement newHandle(Connection connection) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new StatementHandle(this, connection));
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Statement is unusable either way
+            }
+        }
+
+        /**
+         * Makes the statement ready for the next user, or drops it if it can't be reused as-is.
+         */
+        void recycle(boolean settingsChanged) {
+            inUse = false;
+            if (evicted || settingsChanged) {
+                discard();
+                return;
+            }
+            try {
+                ResultSet rs = physical.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+            } catch (SQLException e) {
+                discard();
+            }
+        }
+
+        private void discard() {
+            if (owner.statements.get(sql) == this) {
+                owner.statements.remove(sql);
+            }
+            closePhysical();
+        }
+    }
+
+    private static class StatementHandle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection connection;
+        private boolean closed;
+        private boolean settingsChanged;
+
+        StatementHandle(CachedStatement cached, Connection connection) {
+            this.cached = cached;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.recycle(settingsChanged);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + cached.physical;
+                // Per-statement settings would leak into the next user, so such statements aren't reused
+                case "setFetchSize":
+                case "setFetchDirection":
+                case "setMaxRows":
+                case "setLargeMaxRows":
+                case "setMaxFieldSize":
+                case "setQueryTimeout":
+                case "setEscapeProcessing":
+                case "setPoolable":
+                    settingsChanged = true;
+                    break;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(cached.physical, args);
+            } catch (InvocationTargetException e) {
+                cached.owner.pool().onFailure(cached.owner, e.getCause());
+                throw e.getCause();
+            }
+        }
+    }
+}
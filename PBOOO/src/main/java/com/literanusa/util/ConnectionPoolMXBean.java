@@ -0,0 +1,22 @@
+package com.literanusa.util;
+
+/**
+ * JMX view of the connection pool, readable at runtime from jconsole/VisualVM.
+ */
+public interface ConnectionPoolMXBean {
+    int getActiveConnections();
+    int getIdleConnections();
+    int getWaitingThreads();
+    int getMaxPoolSize();
+    long getBorrowCount();
+    long getBorrowTimeoutCount();
+    double getAverageWaitMillis();
+    double getMaxWaitMillis();
+    long getLeakCount();
+    long getStatementCacheHits();
+    long getStatementCacheMisses();
+    long getStatementCacheEvictions();
+    String getCircuitState();
+    long getCircuitOpenCount();
+    long getCircuitRejectedCount();
+}
@@ -0,0 +1,109 @@
+package com.literanusa.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 style CSV one record at a time, so files of any size stream through.
+ * Quoted fields may contain commas, doubled quotes and line breaks. A leading UTF-8 BOM is skipped.
+ */
+public class CsvReader implements Closeable {
+    private final BufferedReader reader;
+    private final char separator;
+    private long lineNumber = 1;
+    private long recordLineNumber;
+    private boolean started;
+
+    public CsvReader(Reader reader) {
+        this(reader, ',');
+    }
+
+    public CsvReader(Reader reader, char separator) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.separator = separator;
+    }
+
+    /**
+     * @return the fields of the next record, or null at end of input
+     */
+    public List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = reader.read();
+            }
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        recordLineNumber = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLineNumber);
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (c != -1) {
+                    lineNumber++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+                fieldStart = false;
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * @return the line on which the record last returned by {@link #readRecord()} started
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.literanusa.util;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Supported database backends. H2 runs in-process in MySQL compatibility mode so the
+ * schema and DAO SQL written for MySQL work unchanged without an external server.
+ */
+public enum DatabaseBackend {
+    MYSQL("com.mysql.cj.jdbc.Driver", "jdbc:mysql:", "jdbc:mysql://localhost:3306/literanusa_db"),
+    H2("org.h2.Driver", "jdbc:h2:", "jdbc:h2:./data/literanusa_db");
+
+    private static final String H2_COMPATIBILITY = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+    private final String driverClass;
+    private final String urlPrefix;
+    private final String defaultUrl;
+
+    DatabaseBackend(String driverClass, String urlPrefix, String defaultUrl) {
+        this.driverClass = driverClass;
+        this.urlPrefix = urlPrefix;
+        this.defaultUrl = defaultUrl;
+    }
+
+    public String getDriverClass() { return driverClass; }
+    public String getDefaultUrl() { return defaultUrl; }
+
+    public boolean isEmbedded() {
+        return this == H2;
+    }
+
+    /**
+     * MySQL can update several joined tables in one statement; H2 cannot.
+     */
+    public boolean supportsMultiTableUpdate() {
+        return this == MYSQL;
+    }
+
+    /**
+     * MySQL has FULLTEXT indexes with MATCH ... AGAINST; H2's full-text support needs
+     * extra setup, so it uses LIKE instead.
+     */
+    public boolean supportsFullTextSearch() {
+        return this == MYSQL;
+    }
+
+    /**
+     * Adds the settings the backend needs, unless the configured URL already sets them.
+     */
+    public String prepareUrl(DatabaseConfig config) {
+        String url = config.getUrl();
+        if (this == H2 && !url.toUpperCase().contains(";MODE=")) {
+            return url + H2_COMPATIBILITY;
+        }
+        if (this == MYSQL && config.isServerPreparedStatements() && !url.contains("useServerPrepStmts")) {
+            // Statements are cached by the pool, so let the server keep them parsed as well.
+            // H2 always prepares in-process and needs nothing extra.
+            url = url + (url.contains("?") ? "&" : "?") + "useServerPrepStmts=true";
+        }
+        if (this == MYSQL && config.isServerPreparedStatements() && !url.contains("useCursorFetch")) {
+            // Lets statements with a fetch size read through a server-side cursor instead of
+            // buffering the whole result; statements without one are unaffected
+            url = url + (url.contains("?") ? "&" : "?") + "useCursorFetch=true";
+        }
+        if (this == MYSQL && config.getConnectTimeoutMs() > 0 && !url.contains("connectTimeout")) {
+            // The driver otherwise waits for the OS TCP timeout when the server is unreachable
+            url = url + (url.contains("?") ? "&" : "?") + "connectTimeout=" + config.getConnectTimeoutMs();
+        }
+        return url;
+    }
+
+    public ConnectionPool.ConnectionFactory connectionFactory(DatabaseConfig config) {
+        String url = prepareUrl(config);
+        return () -> DriverManager.getConnection(url, config.getUsername(), config.getPassword());
+    }
+
+    public static DatabaseBackend fromName(String name) {
+        for (DatabaseBackend backend : values()) {
+            if (backend.name().equalsIgnoreCase(name.trim())) {
+                return backend;
+            }
+        }
+        throw new IllegalArgumentException("Unknown database backend: " + name);
+    }
+
+    /**
+     * Backend of an open connection. Drivers answer this from local state, without a round trip.
+     */
+    public static DatabaseBackend of(Connection connection) throws SQLException {
+        return fromUrl(connection.getMetaData().getURL());
+    }
+
+    public static DatabaseBackend fromUrl(String url) {
+        for (DatabaseBackend backend : values()) {
+            if (url.startsWith(backend.urlPrefix)) {
+                return backend;
+            }
+        }
+        return MYSQL;
+    }
+}
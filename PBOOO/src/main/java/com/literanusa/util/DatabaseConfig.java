@@ -0,0 +1,142 @@
+package com.literanusa.util;
+
+/**
+ * Database settings. Every value can be overridden with a -Dliteranusa.db.* system property.
+ * A read replica is configured with the same keys under -Dliteranusa.db.replica.*; anything
+ * not set there is inherited from the primary.
+ */
+public class DatabaseConfig {
+    private static final String PREFIX = "literanusa.db.";
+    private static final String REPLICA_PREFIX = PREFIX + "replica.";
+
+    private final String prefix;
+    private final DatabaseConfig parent;
+
+    private final DatabaseBackend backend;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    // Pool settings
+    private final int poolMaxSize;
+    private final int poolMinIdle;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validationIntervalMs;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThresholdMs;
+    private final long housekeepingIntervalMs;
+    private final long connectTimeoutMs;
+
+    // Failure handling
+    private final int retryMaxAttempts;
+    private final long retryBaseDelayMs;
+    private final long retryMaxDelayMs;
+    private final int breakerFailureThreshold;
+    private final long breakerOpenMs;
+
+    // Prepared statement settings
+    private final int statementCacheSize;
+    private final boolean serverPreparedStatements;
+
+    // How long reads stay on the primary after a write, to cover replication lag
+    private final long readYourWritesMs;
+
+    private DatabaseConfig(String prefix, DatabaseConfig parent) {
+        this.prefix = prefix;
+        this.parent = parent;
+
+        String configuredUrl = getString("url", parent != null ? parent.url : null);
+        String backendName = getString("backend", null);
+        if (backendName != null) {
+            this.backend = DatabaseBackend.fromName(backendName);
+        } else {
+            this.backend = configuredUrl != null ? DatabaseBackend.fromUrl(configuredUrl) : DatabaseBackend.MYSQL;
+        }
+        this.url = configuredUrl != null ? configuredUrl : backend.getDefaultUrl();
+        this.username = getString("username", parent != null ? parent.username : "root");
+        this.password = getString("password", parent != null ? parent.password : "");
+
+        this.poolMaxSize = getInt("pool.maxSize", parent != null ? parent.poolMaxSize : 10);
+        this.poolMinIdle = getInt("pool.minIdle", parent != null ? parent.poolMinIdle : 2);
+        this.borrowTimeoutMs = getLong("pool.borrowTimeoutMs", parent != null ? parent.borrowTimeoutMs : 5000);
+        this.idleTimeoutMs = getLong("pool.idleTimeoutMs", parent != null ? parent.idleTimeoutMs : 300000);
+        this.validationIntervalMs = getLong("pool.validationIntervalMs", parent != null ? parent.validationIntervalMs : 500);
+        this.validationTimeoutSeconds = getInt("pool.validationTimeoutSeconds", parent != null ? parent.validationTimeoutSeconds : 2);
+        this.leakDetectionThresholdMs = getLong("pool.leakDetectionThresholdMs", parent != null ? parent.leakDetectionThresholdMs : 30000);
+        this.housekeepingIntervalMs = getLong("pool.housekeepingIntervalMs", parent != null ? parent.housekeepingIntervalMs : 15000);
+        this.connectTimeoutMs = getLong("connectTimeoutMs", parent != null ? parent.connectTimeoutMs : 5000);
+
+        this.retryMaxAttempts = getInt("retry.maxAttempts", parent != null ? parent.retryMaxAttempts : 3);
+        this.retryBaseDelayMs = getLong("retry.baseDelayMs", parent != null ? parent.retryBaseDelayMs : 100);
+        this.retryMaxDelayMs = getLong("retry.maxDelayMs", parent != null ? parent.retryMaxDelayMs : 2000);
+        this.breakerFailureThreshold = getInt("breaker.failureThreshold", parent != null ? parent.breakerFailureThreshold : 5);
+        this.breakerOpenMs = getLong("breaker.openMs", parent != null ? parent.breakerOpenMs : 10000);
+
+        this.statementCacheSize = getInt("statementCacheSize", parent != null ? parent.statementCacheSize : 64);
+        this.serverPreparedStatements = Boolean.parseBoolean(getString("serverPreparedStatements",
+                String.valueOf(parent == null || parent.serverPreparedStatements)));
+        this.readYourWritesMs = getLong("readYourWritesMs", 5000);
+    }
+
+    public static DatabaseConfig fromSystemProperties() {
+        return new DatabaseConfig(PREFIX, null);
+    }
+
+    /**
+     * @return replica settings, or null when no -Dliteranusa.db.replica.url is configured
+     */
+    public DatabaseConfig replicaConfig() {
+        if (parent != null || System.getProperty(REPLICA_PREFIX + "url") == null) {
+            return null;
+        }
+        return new DatabaseConfig(REPLICA_PREFIX, this);
+    }
+
+    private String getString(String key, String defaultValue) {
+        return System.getProperty(prefix + key, defaultValue);
+    }
+
+    private int getInt(String key, int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+
+    private long getLong(String key, long defaultValue) {
+        String value = System.getProperty(prefix + key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + prefix + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public DatabaseBackend getBackend() { return backend; }
+    public String getUrl() { return url; }
+    public String getUsername() { return username; }
+    public String getPassword() { return password; }
+
+    public int getPoolMaxSize() { return poolMaxSize; }
+    public int getPoolMinIdle() { return poolMinIdle; }
+    public long getBorrowTimeoutMs() { return borrowTimeoutMs; }
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public long getValidationIntervalMs() { return validationIntervalMs; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public long getLeakDetectionThresholdMs() { return leakDetectionThresholdMs; }
+    public long getHousekeepingIntervalMs() { return housekeepingIntervalMs; }
+    public long getConnectTimeoutMs() { return connectTimeoutMs; }
+
+    public int getRetryMaxAttempts() { return retryMaxAttempts; }
+    public long getRetryBaseDelayMs() { return retryBaseDelayMs; }
+    public long getRetryMaxDelayMs() { return retryMaxDelayMs; }
+    public int getBreakerFailureThreshold() { return breakerFailureThreshold; }
+    public long getBreakerOpenMs() { return breakerOpenMs; }
+
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public boolean isServerPreparedStatements() { return serverPreparedStatements; }
+
+    public long getReadYourWritesMs() { return readYourWritesMs; }
+}
@@ -0,0 +1,54 @@
+package com.literanusa.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One versioned schema change. The checksum covers the SQL so edits to an applied migration are detected.
+ */
+public class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+    // Null when the statements run on every backend
+    private final DatabaseBackend backend;
+
+    public Migration(int version, String description, String... statements) {
+        this(version, description, Collections.unmodifiableList(Arrays.asList(statements)), null);
+    }
+
+    private Migration(int version, String description, List<String> statements, DatabaseBackend backend) {
+        this.version = version;
+        this.description = description;
+        this.statements = statements;
+        this.backend = backend;
+    }
+
+    /**
+     * Restricts this migration to one backend, for DDL others don't support. Elsewhere it is
+     * recorded as applied without running, so the version sequence stays the same everywhere.
+     */
+    public Migration onlyOn(DatabaseBackend backend) {
+        return new Migration(version, description, statements, backend);
+    }
+
+    public int getVersion() { return version; }
+    public String getDescription() { return description; }
+    public List<String> getStatements() { return statements; }
+
+    public boolean appliesTo(DatabaseBackend target) {
+        return backend == null || backend == target;
+    }
+
+    public long getChecksum() {
+        CRC32 crc = new CRC32();
+        for (String statement : statements) {
+            crc.update(statement.trim().getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,76 @@
+package com.literanusa.util;
+
+/**
+ * Point-in-time snapshot of {@link ConnectionPool} usage.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long leakCount;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    public PoolStats(int active, int idle, int waiters, int maxSize, long borrowCount, long timeoutCount,
+                     long totalWaitNanos, long maxWaitNanos, long createdCount, long destroyedCount, long leakCount,
+                     long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.leakCount = leakCount;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getWaiters() { return waiters; }
+    public int getMaxSize() { return maxSize; }
+    public long getBorrowCount() { return borrowCount; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getCreatedCount() { return createdCount; }
+    public long getDestroyedCount() { return destroyedCount; }
+    public long getLeakCount() { return leakCount; }
+    public long getStatementCacheHits() { return statementCacheHits; }
+    public long getStatementCacheMisses() { return statementCacheMisses; }
+    public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+    }
+
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolStats[active=%d, idle=%d, waiters=%d, max=%d, borrows=%d, timeouts=%d, " +
+                        "avgWait=%.3fms, maxWait=%.3fms, created=%d, destroyed=%d, leaks=%d, " +
+                        "stmtHits=%d, stmtMisses=%d, stmtEvictions=%d]",
+                active, idle, waiters, maxSize, borrowCount, timeoutCount,
+                getAverageWaitMillis(), getMaxWaitMillis(), createdCount, destroyedCount, leakCount,
+                statementCacheHits, statementCacheMisses, statementCacheEvictions);
+    }
+}
@@ -0,0 +1,146 @@
+package com.literanusa.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Sends read-only DAO work to a replica and writes to the primary.
+ *
+ * After any write, reads stay on the primary for a short window so the client that just
+ * borrowed or returned a book sees its own change even if the replica is lagging.
+ * Without a replica, both sides are the primary. While the replica's circuit breaker is
+ * open, reads fall back to the primary.
+ */
+public class ReadWriteRouter {
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long readYourWritesNanos;
+
+    private final DataSource readDataSource = new RoutedDataSource(true);
+    private final DataSource writeDataSource = new RoutedDataSource(false);
+
+    private volatile long primaryReadsUntil = System.nanoTime();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong pinnedReads = new AtomicLong();
+    private final AtomicLong fallbackReads = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    public ReadWriteRouter(DataSource primary, DataSource replica, long readYourWritesMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWritesNanos = readYourWritesMs * 1_000_000L;
+    }
+
+    public DataSource getReadDataSource() {
+        return readDataSource;
+    }
+
+    public DataSource getWriteDataSource() {
+        return writeDataSource;
+    }
+
+    public boolean hasReplica() {
+        return replica != null;
+    }
+
+    private Connection readConnection() throws SQLException {
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        if (System.nanoTime() - primaryReadsUntil < 0) {
+            pinnedReads.incrementAndGet();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaReads.incrementAndGet();
+            return connection;
+        } catch (CircuitBreaker.OpenException e) {
+            fallbackReads.incrementAndGet();
+            return primary.getConnection();
+        }
+    }
+
+    private Connection writeConnection() throws SQLException {
+        writes.incrementAndGet();
+        markWrite();
+        Connection connection = primary.getConnection();
+        if (replica == null) {
+            return connection;
+        }
+        // Restart the window when the write finishes, since replication starts from the commit
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        markWrite();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    public void markWrite() {
+        primaryReadsUntil = System.nanoTime() + readYourWritesNanos;
+    }
+
+    public long getReplicaReads() { return replicaReads.get(); }
+    public long getPinnedReads() { return pinnedReads.get(); }
+    public long getFallbackReads() { return fallbackReads.get(); }
+    public long getWrites() { return writes.get(); }
+
+    @Override
+    public String toString() {
+        return "ReadWriteRouter[replica=" + (replica != null) + ", replicaReads=" + replicaReads.get() +
+                ", pinnedReads=" + pinnedReads.get() + ", fallbackReads=" + fallbackReads.get() +
+                ", writes=" + writes.get() + "]";
+    }
+
+    private class RoutedDataSource implements DataSource {
+        private final boolean readOnly;
+
+        RoutedDataSource(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readOnly ? readConnection() : writeConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Routed connections use the configured credentials");
+        }
+
+        @Override public PrintWriter getLogWriter() { return null; }
+        @Override public void setLogWriter(PrintWriter out) {}
+        @Override public void setLoginTimeout(int seconds) {}
+        @Override public int getLoginTimeout() { return 0; }
+        @Override public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            throw new SQLException("Not a wrapper for " + iface.getName());
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface.isInstance(this);
+        }
+    }
+}
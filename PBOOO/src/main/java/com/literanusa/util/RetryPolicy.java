@@ -0,0 +1,87 @@
+package com.literanusa.util;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-runs idempotent reads that failed because the database link dropped.
+ *
+ * Each attempt should borrow its own connection, so a retry lands on a fresh one. Delays
+ * grow exponentially with full jitter, so clients cut off by the same blip don't all come
+ * back at once. Statement errors and an open {@link CircuitBreaker} are not retried.
+ * Only use this for reads; a write may have been applied before the link failed.
+ */
+public class RetryPolicy {
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+
+    @FunctionalInterface
+    public interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public static RetryPolicy fromConfig(DatabaseConfig config) {
+        return new RetryPolicy(config.getRetryMaxAttempts(), config.getRetryBaseDelayMs(), config.getRetryMaxDelayMs());
+    }
+
+    public <T> T execute(SqlCall<T> call) throws SQLException {
+        calls.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = call.call();
+                if (attempt > 1) {
+                    recovered.incrementAndGet();
+                }
+                return result;
+            } catch (SQLException e) {
+                if (!CircuitBreaker.isConnectionFailure(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    if (maxAttempts > 1) {
+                        exhausted.incrementAndGet();
+                    }
+                    throw e;
+                }
+                retries.incrementAndGet();
+                try {
+                    Thread.sleep(delayMillis(attempt));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private long delayMillis(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public long getCalls() { return calls.get(); }
+    public long getRetries() { return retries.get(); }
+    public long getRecovered() { return recovered.get(); }
+    public long getExhausted() { return exhausted.get(); }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy[maxAttempts=" + maxAttempts + ", calls=" + calls.get() + ", retries=" + retries.get() +
+                ", recovered=" + recovered.get() + ", exhausted=" + exhausted.get() + "]";
+    }
+}
@@ -0,0 +1,99 @@
+package com.literanusa.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All schema migrations in version order. Never edit a migration that has shipped; add a new one.
+ */
+public final class SchemaMigrations {
+
+    private SchemaMigrations() {}
+
+    public static List<Migration> all() {
+        return Arrays.asList(
+                new Migration(1, "Baseline schema and seed data",
+                        "CREATE TABLE IF NOT EXISTS users (" +
+                                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                                "username VARCHAR(50) UNIQUE NOT NULL," +
+                                "password VARCHAR(255) NOT NULL," +
+                                "email VARCHAR(100) NOT NULL," +
+                                "full_name VARCHAR(100) NOT NULL," +
+                                "role ENUM('USER', 'ADMIN') DEFAULT 'USER'," +
+                                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+
+                        "CREATE TABLE IF NOT EXISTS books (" +
+                                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                                "title VARCHAR(255) NOT NULL," +
+                                "author VARCHAR(255) NOT NULL," +
+                                "isbn VARCHAR(20) UNIQUE," +
+                                "genre VARCHAR(100)," +
+                                "synopsis TEXT," +
+                                "rating DECIMAL(3,2) DEFAULT 0.00," +
+                                "available_copies INT DEFAULT 1," +
+                                "total_copies INT DEFAULT 1," +
+                                "cover_image VARCHAR(255)," +
+                                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+
+                        "CREATE TABLE IF NOT EXISTS loans (" +
+                                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                                "user_id INT," +
+                                "book_id INT," +
+                                "loan_date DATE NOT NULL," +
+                                "due_date DATE NOT NULL," +
+                                "return_date DATE," +
+                                "status ENUM('ACTIVE', 'RETURNED', 'OVERDUE') DEFAULT 'ACTIVE'," +
+                                "FOREIGN KEY (user_id) REFERENCES users(id)," +
+                                "FOREIGN KEY (book_id) REFERENCES books(id))",
+
+                        // Default admin user
+                        "INSERT IGNORE INTO users (username, password, email, full_name, role) " +
+                                "VALUES ('admin', 'admin123', 'admin@literanusa.com', 'Administrator', 'ADMIN')",
+
+                        // Sample books
+                        "INSERT IGNORE INTO books (title, author, isbn, genre, synopsis, rating, available_copies, total_copies) VALUES " +
+                                "('Laskar Pelangi', 'Andrea Hirata', '9789792248074', 'Drama', 'Novel tentang perjuangan anak-anak Belitung untuk mendapatkan pendidikan.', 4.5, 3, 3)," +
+                                "('Bumi Manusia', 'Pramoedya Ananta Toer', '9789799731240', 'Sejarah', 'Novel sejarah tentang kehidupan di masa kolonial Belanda.', 4.8, 2, 2)," +
+                                "('Ayat-Ayat Cinta', 'Habiburrahman El Shirazy', '9789792248081', 'Religi', 'Novel religi tentang cinta dan kehidupan seorang mahasiswa Indonesia di Mesir.', 4.3, 4, 4)"),
+
+                new Migration(2, "Performance indexes for loan history, status sweeps and catalog browsing",
+                        "CREATE INDEX idx_loans_user_date ON loans (user_id, loan_date)",
+                        "CREATE INDEX idx_loans_status_due ON loans (status, due_date)",
+                        "CREATE INDEX idx_books_genre ON books (genre)",
+                        "CREATE INDEX idx_books_rating ON books (rating)"),
+
+                // Keyset pagination seeks on (sort key, id), which needs a non-null sort key and a matching index
+                new Migration(3, "Keyset pagination indexes for catalog and loan listings",
+                        "UPDATE books SET rating = 0.00 WHERE rating IS NULL",
+                        "ALTER TABLE books MODIFY rating DECIMAL(3,2) NOT NULL DEFAULT 0.00",
+                        "DROP INDEX idx_books_rating ON books",
+                        "CREATE INDEX idx_books_rating_id ON books (rating, id)",
+                        "CREATE INDEX idx_books_title_id ON books (title, id)",
+                        "CREATE INDEX idx_loans_date_id ON loans (loan_date, id)"),
+
+                new Migration(4, "Full-text index for catalog search",
+                        "CREATE FULLTEXT INDEX ft_books_search ON books (title, author, genre, synopsis)")
+                        .onlyOn(DatabaseBackend.MYSQL),
+
+                // Lets caches confirm an entry is current by reading one small column
+                new Migration(5, "Row version and update stamp on books",
+                        "ALTER TABLE books ADD COLUMN version BIGINT NOT NULL DEFAULT 0",
+                        "ALTER TABLE books ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP"),
+
+                // Clients poll this by primary key to evict what other clients changed
+                new Migration(6, "Change log for cross-client cache invalidation",
+                        "CREATE TABLE change_log (" +
+                                "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                                "change_type VARCHAR(32) NOT NULL," +
+                                "entity_id INT NULL," +
+                                "version BIGINT NULL," +
+                                "origin CHAR(36) NOT NULL," +
+                                "changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)",
+                        "CREATE INDEX idx_change_log_changed_at ON change_log (changed_at)"),
+
+                // Delta sync of the local catalog snapshot reads books changed since a watermark
+                new Migration(7, "Update stamp index on books",
+                        "CREATE INDEX idx_books_updated_at ON books (updated_at)")
+        );
+    }
+}
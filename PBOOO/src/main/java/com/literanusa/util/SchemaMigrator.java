@@ -0,0 +1,127 @@
+package com.literanusa.util;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies pending {@link SchemaMigrations} and records them in the schema_version table.
+ * When the schema is already current, startup costs a single SELECT.
+ */
+public class SchemaMigrator {
+    private static final String VERSION_TABLE = "schema_version";
+
+    private final DataSource dataSource;
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this(dataSource, SchemaMigrations.all());
+    }
+
+    public SchemaMigrator(DataSource dataSource, List<Migration> migrations) {
+        this.dataSource = dataSource;
+        this.migrations = migrations;
+    }
+
+    /**
+     * @return number of migrations applied by this call
+     */
+    public int migrate() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            Map<Integer, Long> applied = readAppliedVersions(connection);
+            verifyChecksums(applied);
+
+            int count = 0;
+            for (Migration migration : migrations) {
+                if (!applied.containsKey(migration.getVersion())) {
+                    if (apply(connection, migration)) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    private Map<Integer, Long> readAppliedVersions(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM " + VERSION_TABLE)) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+            return applied;
+        } catch (SQLException e) {
+            if (versionTableExists(connection)) {
+                throw e;
+            }
+        }
+
+        // First run against this database
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + VERSION_TABLE + " (" +
+                    "version INT PRIMARY KEY," +
+                    "description VARCHAR(200) NOT NULL," +
+                    "checksum BIGINT NOT NULL," +
+                    "execution_ms INT NOT NULL," +
+                    "installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+        return applied;
+    }
+
+    private boolean versionTableExists(Connection connection) throws SQLException {
+        for (String name : new String[]{VERSION_TABLE, VERSION_TABLE.toUpperCase()}) {
+            try (ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), null, name, null)) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void verifyChecksums(Map<Integer, Long> applied) {
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.getVersion());
+            if (checksum != null && checksum != migration.getChecksum()) {
+                System.err.println("Schema migration V" + migration.getVersion() +
+                        " has changed since it was applied (checksum " + checksum + " vs " + migration.getChecksum() + ")");
+            }
+        }
+    }
+
+    private boolean apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        boolean skipped = !migration.appliesTo(DatabaseBackend.of(connection));
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : skipped ? Collections.<String>emptyList() : migration.getStatements()) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            // Another client may have applied the same migration concurrently
+            if (readAppliedVersions(connection).containsKey(migration.getVersion())) {
+                return false;
+            }
+            throw new SQLException("Schema migration V" + migration.getVersion() + " failed: " + e.getMessage(), e);
+        }
+
+        String sql = "INSERT INTO " + VERSION_TABLE + " (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, migration.getVersion());
+            stmt.setString(2, migration.getDescription());
+            stmt.setLong(3, migration.getChecksum());
+            stmt.setInt(4, (int) (System.currentTimeMillis() - start));
+            stmt.executeUpdate();
+        }
+        System.out.println((skipped ? "Skipped schema migration V" : "Applied schema migration V") +
+                migration.getVersion() + ": " + migration.getDescription() + (skipped ? " (not for this backend)" : ""));
+        return true;
+    }
+}
@@ -1,13 +1,22 @@
 package com.literanusa.view;
 
+import com.literanusa.controller.AsyncBookController;
 import com.literanusa.controller.BookController;
+import com.literanusa.dao.AsyncLoanDAO;
+import com.literanusa.dao.BookDAO;
+import com.literanusa.dao.BookImporter;
 import com.literanusa.dao.LoanDAO;
+import com.literanusa.dao.Page;
+import com.literanusa.dao.StatisticsDAO;
 import com.literanusa.factory.DAOFactory;
 import com.literanusa.model.Book;
 import com.literanusa.model.Loan;
+import com.literanusa.model.LoanDetail;
 import com.literanusa.model.User;
+import com.literanusa.util.AsyncExecutor;
 import com.literanusa.util.ImageUtils;
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -17,18 +26,37 @@ import java.awt.event.MouseEvent;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 public class AdminDashboardView extends JFrame {
     private User currentUser;
     private BookController bookController;
     private LoanDAO loanDAO;
+    private AsyncLoanDAO asyncLoanDAO;
+    private AsyncBookController asyncBookController;
+    private StatisticsDAO statisticsDAO;
+    private BookImporter bookImporter;
     private JTabbedPane tabbedPane;
     private JTable booksTable;
     private JTable loansTable;
     private DefaultTableModel booksTableModel;
     private DefaultTableModel loansTableModel;
+    private JButton moreBooksButton;
+    private final JLabel totalBooksLabel = new JLabel("-");
+    private final JLabel availableBooksLabel = new JLabel("-");
+    private final JLabel activeLoansLabel = new JLabel("-");
+    private final JLabel overdueLoansLabel = new JLabel("-");
+    private JButton moreLoansButton;
+
+    // Keyset cursors: the last row shown in each table
+    private static final int LOANS_PAGE_SIZE = 10;
+    private BookDAO.SortOrder bookSortOrder = BookDAO.SortOrder.RATING;
+    private Book lastBook;
+    private int booksGeneration;
+    private LoanDetail lastLoan;
+    private int loansGeneration;
 
     // Modern Color Scheme
     private final Color PRIMARY_TEAL = new Color(95, 158, 160);
@@ -45,7 +73,12 @@ public class AdminDashboardView extends JFrame {
         this.currentUser = user;
         this.bookController = new BookController();
         this.loanDAO = DAOFactory.getInstance().getLoanDAO();
+        this.asyncLoanDAO = new AsyncLoanDAO(loanDAO, AsyncExecutor.getInstance());
+        this.asyncBookController = new AsyncBookController(bookController, AsyncExecutor.getInstance());
+        this.statisticsDAO = DAOFactory.getInstance().getStatisticsDAO();
+        this.bookImporter = DAOFactory.getInstance().getBookImporter();
         initializeComponents();
+        loadStatistics();
         loadBooks();
         loadAllLoans();
     }
@@ -160,6 +193,10 @@ public class AdminDashboardView extends JFrame {
         JPanel activitiesSection = createActivitiesSection();
         dashboardPanel.add(activitiesSection);
 
+        // Book Catalog Section
+        JPanel booksSection = createBooksSection();
+        dashboardPanel.add(booksSection);
+
         // Quick Actions Section
         JPanel quickActionsSection = createQuickActionsSection();
         dashboardPanel.add(quickActionsSection);
@@ -178,36 +215,41 @@ public class AdminDashboardView extends JFrame {
         section.setBackground(WHITE);
         section.setBorder(BorderFactory.createEmptyBorder(30, 30, 20, 30));
 
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(WHITE);
+
         JLabel sectionTitle = new JLabel("📊 Statistik Perpustakaan");
         sectionTitle.setFont(new Font("Segoe UI", Font.BOLD, 20));
         sectionTitle.setForeground(DARK_TEXT);
 
-        // Stats cards grid
+        JButton refreshButton = new JButton("🔄 Refresh");
+        refreshButton.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        refreshButton.setForeground(PRIMARY_TEAL);
+        refreshButton.setBackground(WHITE);
+        refreshButton.setFocusPainted(false);
+        refreshButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        refreshButton.addActionListener(e -> loadStatistics());
+
+        headerPanel.add(sectionTitle, BorderLayout.WEST);
+        headerPanel.add(refreshButton, BorderLayout.EAST);
+
+        // Stats cards grid, filled in by loadStatistics()
         JPanel statsGrid = new JPanel(new GridLayout(1, 4, 20, 0));
         statsGrid.setBackground(WHITE);
         statsGrid.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
 
-        // Calculate statistics
-        List<Book> allBooks = bookController.getAllBooks();
-        List<Loan> allLoans = loanDAO.getAllLoans();
+        statsGrid.add(createStatCard("📚", "Total Buku", totalBooksLabel, PRIMARY_TEAL));
+        statsGrid.add(createStatCard("✅", "Tersedia", availableBooksLabel, SUCCESS_GREEN));
+        statsGrid.add(createStatCard("📖", "Dipinjam", activeLoansLabel, WARNING_ORANGE));
+        statsGrid.add(createStatCard("⚠️", "Terlambat", overdueLoansLabel, DANGER_RED));
 
-        int totalBooks = allBooks.size();
-        int availableBooks = allBooks.stream().mapToInt(Book::getAvailableCopies).sum();
-        int activeLoans = (int) allLoans.stream().filter(l -> l.getStatus() == Loan.Status.ACTIVE).count();
-        int overdueLoans = (int) allLoans.stream().filter(l -> l.getStatus() == Loan.Status.OVERDUE).count();
-
-        statsGrid.add(createStatCard("📚", "Total Buku", String.valueOf(totalBooks), PRIMARY_TEAL));
-        statsGrid.add(createStatCard("✅", "Tersedia", String.valueOf(availableBooks), SUCCESS_GREEN));
-        statsGrid.add(createStatCard("📖", "Dipinjam", String.valueOf(activeLoans), WARNING_ORANGE));
-        statsGrid.add(createStatCard("⚠️", "Terlambat", String.valueOf(overdueLoans), DANGER_RED));
-
-        section.add(sectionTitle, BorderLayout.NORTH);
+        section.add(headerPanel, BorderLayout.NORTH);
         section.add(statsGrid, BorderLayout.CENTER);
 
         return section;
     }
 
-    private JPanel createStatCard(String icon, String title, String value, Color color) {
+    private JPanel createStatCard(String icon, String title, JLabel valueLabel, Color color) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(WHITE);
         card.setBorder(BorderFactory.createCompoundBorder(
@@ -225,7 +267,6 @@ public class AdminDashboardView extends JFrame {
         textPanel.setLayout(new BoxLayout(textPanel, BoxLayout.Y_AXIS));
         textPanel.setBackground(WHITE);
 
-        JLabel valueLabel = new JLabel(value);
         valueLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
         valueLabel.setForeground(color);
         valueLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -267,12 +308,70 @@ public class AdminDashboardView extends JFrame {
         tableScrollPane.setBorder(BorderFactory.createLineBorder(new Color(222, 226, 230), 1));
         tableScrollPane.setPreferredSize(new Dimension(0, 300));
 
+        moreLoansButton = createLoadMoreButton(e -> loadMoreLoans());
+
         section.add(sectionTitle, BorderLayout.NORTH);
         section.add(tableScrollPane, BorderLayout.CENTER);
+        section.add(moreLoansButton, BorderLayout.SOUTH);
 
         return section;
     }
 
+    private JPanel createBooksSection() {
+        JPanel section = new JPanel(new BorderLayout());
+        section.setBackground(WHITE);
+        section.setBorder(BorderFactory.createEmptyBorder(20, 30, 20, 30));
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(WHITE);
+
+        JLabel sectionTitle = new JLabel("📚 Katalog Buku");
+        sectionTitle.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        sectionTitle.setForeground(DARK_TEXT);
+
+        JComboBox<String> sortCombo = new JComboBox<>(new String[]{"Rating Tertinggi", "Judul (A-Z)"});
+        sortCombo.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        sortCombo.addActionListener(e -> {
+            bookSortOrder = sortCombo.getSelectedIndex() == 1 ? BookDAO.SortOrder.TITLE : BookDAO.SortOrder.RATING;
+            loadBooks();
+        });
+
+        headerPanel.add(sectionTitle, BorderLayout.WEST);
+        headerPanel.add(sortCombo, BorderLayout.EAST);
+
+        String[] columns = {"ID", "Judul", "Penulis", "ISBN", "Genre", "Rating", "Tersedia", "Total"};
+        booksTableModel = new DefaultTableModel(columns, 0);
+        booksTable = new JTable(booksTableModel);
+        booksTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        booksTable.setRowHeight(30);
+        booksTable.setBackground(WHITE);
+        booksTable.setGridColor(new Color(222, 226, 230));
+
+        JScrollPane tableScrollPane = new JScrollPane(booksTable);
+        tableScrollPane.setBorder(BorderFactory.createLineBorder(new Color(222, 226, 230), 1));
+        tableScrollPane.setPreferredSize(new Dimension(0, 300));
+
+        moreBooksButton = createLoadMoreButton(e -> loadMoreBooks());
+
+        section.add(headerPanel, BorderLayout.NORTH);
+        section.add(tableScrollPane, BorderLayout.CENTER);
+        section.add(moreBooksButton, BorderLayout.SOUTH);
+
+        return section;
+    }
+
+    private JButton createLoadMoreButton(ActionListener action) {
+        JButton button = new JButton("Muat lebih banyak");
+        button.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        button.setForeground(PRIMARY_TEAL);
+        button.setBackground(WHITE);
+        button.setFocusPainted(false);
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        button.setEnabled(false);
+        button.addActionListener(action);
+        return button;
+    }
+
     private JPanel createQuickActionsSection() {
         JPanel section = new JPanel(new BorderLayout());
         section.setBackground(LIGHT_GRAY);
@@ -336,49 +435,177 @@ public class AdminDashboardView extends JFrame {
         return button;
     }
 
+    private void loadStatistics() {
+        AsyncExecutor.getInstance().submit(statisticsDAO::getStatistics)
+                .whenComplete(AsyncExecutor.onEdt((stats, error) -> {
+                    if (error != null || stats == null) {
+                        if (error != null) error.printStackTrace();
+                        return;
+                    }
+                    totalBooksLabel.setText(String.valueOf(stats.getTotalBooks()));
+                    availableBooksLabel.setText(String.valueOf(stats.getAvailableCopies()));
+                    activeLoansLabel.setText(String.valueOf(stats.getActiveLoans()));
+                    overdueLoansLabel.setText(String.valueOf(stats.getOverdueLoans()));
+                }));
+    }
+
     private void loadBooks() {
+        if (booksTableModel == null) return;
+
         booksTableModel.setRowCount(0);
-        List<Book> books = bookController.getAllBooks();
-
-        for (Book book : books) {
-            Object[] row = {
-                    book.getId(),
-                    book.getTitle(),
-                    book.getAuthor(),
-                    book.getIsbn(),
-                    book.getGenre(),
-                    String.format("%.1f", book.getRating()),
-                    book.getAvailableCopies(),
-                    book.getTotalCopies()
-            };
-            booksTableModel.addRow(row);
-        }
+        lastBook = null;
+        booksGeneration++;
+        loadMoreBooks();
+    }
+
+    private void loadMoreBooks() {
+        int generation = booksGeneration;
+        moreBooksButton.setEnabled(false);
+        asyncBookController.getBooksPage(bookSortOrder, lastBook, Page.DEFAULT_SIZE)
+                .whenComplete(AsyncExecutor.onEdt((page, error) -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                        return;
+                    }
+                    // The table was reset (e.g. re-sorted) while this page was loading
+                    if (generation != booksGeneration) return;
+
+                    for (Book book : page.getItems()) {
+                        Object[] row = {
+                                book.getId(),
+                                book.getTitle(),
+                                book.getAuthor(),
+                                book.getIsbn(),
+                                book.getGenre(),
+                                String.format("%.1f", book.getRating()),
+                                book.getAvailableCopies(),
+                                book.getTotalCopies()
+                        };
+                        booksTableModel.addRow(row);
+                    }
+                    if (page.getLast() != null) {
+                        lastBook = page.getLast();
+                    }
+                    moreBooksButton.setEnabled(page.hasMore());
+                }));
     }
 
     private void loadAllLoans() {
         if (loansTableModel == null) return;
 
         loansTableModel.setRowCount(0);
-        List<Loan> loans = loanDAO.getAllLoans().stream()
-                .limit(10) // Show only recent 10 loans
-                .collect(Collectors.toList());
-
-        for (Loan loan : loans) {
-            Book book = bookController.getBookById(loan.getBookId());
-            Object[] row = {
-                    loan.getId(),
-                    "User " + loan.getUserId(), // You might want to get actual username
-                    book != null ? book.getTitle() : "Unknown",
-                    loan.getLoanDate(),
-                    loan.getStatus()
-            };
-            loansTableModel.addRow(row);
-        }
+        lastLoan = null;
+        loansGeneration++;
+        loadMoreLoans();
+    }
+
+    private void loadMoreLoans() {
+        int generation = loansGeneration;
+        moreLoansButton.setEnabled(false);
+        asyncLoanDAO.getLoanDetailsPage(lastLoan, LOANS_PAGE_SIZE)
+                .whenComplete(AsyncExecutor.onEdt((page, error) -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                        return;
+                    }
+                    // The table was reset while this page was loading
+                    if (generation != loansGeneration) return;
+
+                    for (LoanDetail detail : page.getItems()) {
+                        Loan loan = detail.getLoan();
+                        loansTableModel.addRow(new Object[]{
+                                loan.getId(),
+                                detail.getBorrowerName(),
+                                detail.getBookTitle() != null ? detail.getBookTitle() : "Unknown",
+                                loan.getLoanDate(),
+                                loan.getStatus()
+                        });
+                    }
+                    if (page.getLast() != null) {
+                        lastLoan = page.getLast();
+                    }
+                    moreLoansButton.setEnabled(page.hasMore());
+                }));
     }
 
     // Dialog methods
     private void showAddBookDialog() {
-        JOptionPane.showMessageDialog(this, "Fitur Tambah Buku akan segera tersedia!", "Info", JOptionPane.INFORMATION_MESSAGE);
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Impor Katalog Buku");
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV (judul, penulis, ISBN, genre, sinopsis, eksemplar)", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+
+        JDialog progressDialog = new JDialog(this, "Impor Katalog", false);
+        JLabel progressLabel = new JLabel("Membaca " + file.getName() + "...");
+        progressLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        progressLabel.setForeground(DARK_TEXT);
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        JButton cancelButton = new JButton("Batal");
+
+        JPanel content = new JPanel(new BorderLayout(0, 10));
+        content.setBackground(WHITE);
+        content.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        content.add(progressLabel, BorderLayout.NORTH);
+        content.add(progressBar, BorderLayout.CENTER);
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttonPanel.setOpaque(false);
+        buttonPanel.add(cancelButton);
+        content.add(buttonPanel, BorderLayout.SOUTH);
+        progressDialog.setContentPane(content);
+        progressDialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        progressDialog.setSize(400, 150);
+        progressDialog.setLocationRelativeTo(this);
+
+        // No timeout: a large catalog takes minutes, and the user can cancel instead
+        CompletableFuture<BookImporter.Result> importFuture = AsyncExecutor.getInstance().submit(() -> {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                return bookImporter.importCsv(reader, progress -> {
+                    String text = String.format("%,d baris dibaca, %,d tersimpan, %,d ditolak",
+                            progress.getRowsRead(), progress.getRowsWritten(), progress.getRejectCount());
+                    SwingUtilities.invokeLater(() -> progressLabel.setText(text));
+                });
+            }
+        }, 0);
+        cancelButton.addActionListener(e -> importFuture.cancel(true));
+
+        importFuture.whenComplete(AsyncExecutor.onEdt((result, error) -> {
+            progressDialog.dispose();
+            loadStatistics();
+            loadBooks();
+            if (error instanceof CancellationException) {
+                JOptionPane.showMessageDialog(this, "Impor dibatalkan. Buku yang sudah tersimpan tetap ada di katalog.",
+                        "Impor Katalog", JOptionPane.INFORMATION_MESSAGE);
+            } else if (error != null) {
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Impor gagal: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                showImportResult(result);
+            }
+        }));
+        progressDialog.setVisible(true);
+    }
+
+    private void showImportResult(BookImporter.Result result) {
+        StringBuilder message = new StringBuilder(String.format("%,d buku tersimpan dari %,d baris.",
+                result.getRowsWritten(), result.getRowsRead()));
+        if (result.getRejectCount() == 0) {
+            JOptionPane.showMessageDialog(this, message.toString(), "Impor Katalog", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        message.append(String.format("%n%,d baris ditolak:%n", result.getRejectCount()));
+        for (BookImporter.Reject reject : result.getRejects()) {
+            message.append(String.format("Baris %d: %s%n", reject.getLine(), reject.getReason()));
+        }
+        if (result.getRejectCount() > result.getRejects().size()) {
+            message.append("...");
+        }
+        JTextArea details = new JTextArea(message.toString(), 12, 50);
+        details.setEditable(false);
+        details.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        JOptionPane.showMessageDialog(this, new JScrollPane(details), "Impor Katalog", JOptionPane.WARNING_MESSAGE);
     }
 
     private void showUsersDialog() {
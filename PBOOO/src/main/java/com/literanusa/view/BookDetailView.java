@@ -3,9 +3,11 @@ package com.literanusa.view;
 import com.literanusa.model.Book;
 import com.literanusa.model.User;
 import com.literanusa.model.Loan;
+import com.literanusa.util.AsyncExecutor;
 import com.literanusa.util.ImageUtils;
 import com.literanusa.util.NotificationSystem;
 import com.literanusa.util.WishlistManager;
+import com.literanusa.dao.AsyncLoanDAO;
 import com.literanusa.dao.LoanDAO;
 import com.literanusa.dao.BookDAO;
 import com.literanusa.factory.DAOFactory;
@@ -15,6 +17,7 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.time.LocalDate;
+import java.util.concurrent.RejectedExecutionException;
 
 public class BookDetailView extends JFrame {
     private Book book;
@@ -29,6 +32,7 @@ public class BookDetailView extends JFrame {
     private JButton rateButton;
     private JLabel availabilityLabel;
     private JPanel starRatingPanel;
+    private JTextArea synopsisArea;
     private int currentUserRating = 0;
 
     private final Color PRIMARY_TEAL = new Color(95, 158, 160);
@@ -47,6 +51,30 @@ public class BookDetailView extends JFrame {
         this.loanDAO = DAOFactory.getInstance().getLoanDAO();
         this.bookDAO = DAOFactory.getInstance().getBookDAO();
         initializeComponents();
+        if (book.isSummary()) {
+            loadFullBook();
+        }
+    }
+
+    /**
+     * Catalog cards pass a summary without the synopsis; fetch the full record in the background.
+     */
+    private void loadFullBook() {
+        int bookId = book.getId();
+        AsyncExecutor.getInstance().submit(() -> bookDAO.getBookById(bookId))
+                .whenComplete(AsyncExecutor.onEdt((fullBook, error) -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                    }
+                    if (fullBook == null) {
+                        synopsisArea.setText("Sinopsis tidak tersedia untuk buku ini.");
+                        return;
+                    }
+                    book.setSynopsis(fullBook.getSynopsis());
+                    book.setSummary(false);
+                    synopsisArea.setText(fullBook.getSynopsis() != null ? fullBook.getSynopsis() : "Sinopsis tidak tersedia untuk buku ini.");
+                    synopsisArea.setCaretPosition(0);
+                }));
     }
 
     private void initializeComponents() {
@@ -281,7 +309,9 @@ public class BookDetailView extends JFrame {
             DARK_TEXT
         ));
 
-        JTextArea synopsisArea = new JTextArea(book.getSynopsis() != null ? book.getSynopsis() : "Sinopsis tidak tersedia untuk buku ini.");
+        String synopsisText = book.isSummary() ? "Memuat sinopsis..."
+                : book.getSynopsis() != null ? book.getSynopsis() : "Sinopsis tidak tersedia untuk buku ini.";
+        synopsisArea = new JTextArea(synopsisText);
         synopsisArea.setEditable(false);
         synopsisArea.setLineWrap(true);
         synopsisArea.setWrapStyleWord(true);
@@ -595,46 +625,64 @@ public class BookDetailView extends JFrame {
                 JOptionPane.QUESTION_MESSAGE);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            // Show loading dialog
             JDialog loadingDialog = NotificationSystem.showLoadingDialog(this, "Memproses peminjaman...");
-            loadingDialog.setVisible(true);
 
-            // Simulate processing time
-            Timer timer = new Timer(2000, e -> {
-                loadingDialog.dispose();
-                
-                try {
-                    // Create loan record
-                    Loan loan = new Loan();
-                    loan.setUserId(currentUser.getId());
-                    loan.setBookId(book.getId());
-                    loan.setLoanDate(LocalDate.now());
-                    loan.setDueDate(LocalDate.now().plusDays(14));
-                    loan.setStatus(Loan.Status.ACTIVE);
-
-                    // Save loan (this would use actual DAO)
-                    // loanDAO.create(loan);
-
-                    // Update book availability
-                    book.setAvailableCopies(book.getAvailableCopies() - 1);
-                    // bookDAO.update(book);
-
-                    // Update UI
-                    updateAvailabilityDisplay();
-                    updateBorrowButton();
-
-                    // Show success notification
-                    NotificationSystem.showBookBorrowed(this, book.getTitle());
-
-                } catch (Exception ex) {
-                    NotificationSystem.showError(this, "Terjadi kesalahan saat memproses peminjaman. Silakan coba lagi.");
-                }
-            });
-            timer.setRepeats(false);
-            timer.start();
+            // Create loan record
+            Loan loan = new Loan();
+            loan.setUserId(currentUser.getId());
+            loan.setBookId(book.getId());
+            loan.setLoanDate(LocalDate.now());
+            loan.setDueDate(LocalDate.now().plusDays(14));
+            loan.setStatus(Loan.Status.ACTIVE);
+
+            new AsyncLoanDAO(loanDAO, AsyncExecutor.getInstance()).borrowBook(loan)
+                    .whenComplete(AsyncExecutor.onEdt((result, error) -> {
+                        loadingDialog.dispose();
+
+                        if (error instanceof RejectedExecutionException || result == LoanDAO.BorrowResult.ERROR) {
+                            // Never started, or rolled back
+                            NotificationSystem.showError(this, "Terjadi kesalahan saat memproses peminjaman. Silakan coba lagi.");
+                        } else if (error != null) {
+                            // The loan may have been committed; don't invite a second borrow
+                            error.printStackTrace();
+                            NotificationSystem.showWarning(this, "Status peminjaman belum dapat dipastikan. " +
+                                    "Periksa daftar pinjaman Anda sebelum mencoba lagi.");
+                            reloadAvailability();
+                        } else if (result == LoanDAO.BorrowResult.NO_COPY_AVAILABLE) {
+                            // Someone else took the last copy in the meantime
+                            book.setAvailableCopies(0);
+                            updateAvailabilityDisplay();
+                            updateBorrowButton();
+                            NotificationSystem.showError(this, "Buku ini sedang tidak tersedia untuk dipinjam.");
+                        } else {
+                            book.setAvailableCopies(book.getAvailableCopies() - 1);
+                            updateAvailabilityDisplay();
+                            updateBorrowButton();
+                            NotificationSystem.showBookBorrowed(this, book.getTitle());
+                        }
+                    }));
+
+            // Modal, so this blocks until the callback above disposes it
+            loadingDialog.setVisible(true);
         }
     }
 
+    private void reloadAvailability() {
+        int bookId = book.getId();
+        AsyncExecutor.getInstance().submit(() -> bookDAO.getBookById(bookId))
+                .whenComplete(AsyncExecutor.onEdt((current, error) -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                        return;
+                    }
+                    if (current != null) {
+                        book.setAvailableCopies(current.getAvailableCopies());
+                        updateAvailabilityDisplay();
+                        updateBorrowButton();
+                    }
+                }));
+    }
+
     private void toggleWishlist() {
         boolean wasInWishlist = wishlistManager.isInWishlist(currentUser, book);
         boolean success = wishlistManager.toggleWishlist(currentUser, book);
@@ -1,15 +1,18 @@
 package com.literanusa.view;
 
+import com.literanusa.controller.AsyncAuthController;
 import com.literanusa.controller.AuthController;
 import com.literanusa.model.User;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import com.literanusa.util.AsyncExecutor;
 import com.literanusa.util.ImageUtils;
 
 public class LoginView extends JFrame {
     private AuthController authController;
+    private AsyncAuthController asyncAuthController;
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JButton loginButton;
@@ -26,6 +29,7 @@ public class LoginView extends JFrame {
 
     public LoginView() {
         this.authController = new AuthController();
+        this.asyncAuthController = new AsyncAuthController(authController, AsyncExecutor.getInstance());
         initializeComponents();
         setupLayout();
         setupEventListeners();
@@ -305,7 +309,19 @@ public class LoginView extends JFrame {
             return;
         }
 
-        User user = authController.login(username, password);
+        // Keep the window responsive while the credentials are checked
+        loginButton.setEnabled(false);
+        asyncAuthController.login(username, password).whenComplete(AsyncExecutor.onEdt((user, error) -> {
+            loginButton.setEnabled(true);
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Gagal terhubung ke database: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            completeLogin(user);
+        }));
+    }
+
+    private void completeLogin(User user) {
         if (user != null) {
             JOptionPane.showMessageDialog(this, "Login berhasil! Selamat datang, " + user.getFullName(), "Success", JOptionPane.INFORMATION_MESSAGE);
 
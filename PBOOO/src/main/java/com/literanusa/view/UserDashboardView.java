@@ -1,6 +1,8 @@
 package com.literanusa.view;
 
+import com.literanusa.controller.AsyncBookController;
 import com.literanusa.controller.BookController;
+import com.literanusa.dao.CatalogSnapshotSync;
 import com.literanusa.dao.LoanDAO;
 import com.literanusa.factory.DAOFactory;
 import com.literanusa.model.Book;
@@ -13,15 +15,19 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import com.literanusa.util.AsyncExecutor;
 import com.literanusa.util.ImageUtils;
 import com.literanusa.view.UserProfileView;
 
 public class UserDashboardView extends JFrame {
     private User currentUser;
     private BookController bookController;
+    private AsyncBookController asyncBookController;
+    private CompletableFuture<List<Book>> pendingBooksLoad;
     private LoanDAO loanDAO;
     private JTabbedPane tabbedPane;
     private JTextField searchField;
@@ -49,6 +55,7 @@ public class UserDashboardView extends JFrame {
     public UserDashboardView(User user) {
         this.currentUser = user;
         this.bookController = new BookController();
+        this.asyncBookController = new AsyncBookController(bookController, AsyncExecutor.getInstance());
         this.loanDAO = DAOFactory.getInstance().getLoanDAO();
         initializeComponents();
         loadBooks();
@@ -321,7 +328,7 @@ public class UserDashboardView extends JFrame {
         booksGrid.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
 
         // Get top 5 books by rating
-        List<Book> popularBooks = bookController.getAllBooks().stream()
+        List<Book> popularBooks = snapshotOrCatalog().stream()
                 .sorted((a, b) -> Double.compare(b.getRating(), a.getRating()))
                 .limit(5)
                 .collect(Collectors.toList());
@@ -599,13 +606,42 @@ public class UserDashboardView extends JFrame {
         return footer;
     }
 
+    /**
+     * The local catalog snapshot when there is one, so building the dashboard doesn't wait on the database.
+     */
+    private List<Book> snapshotOrCatalog() {
+        List<Book> books = CatalogSnapshotSync.getInstance().getBooks();
+        return books != null ? books : bookController.getAllBooks();
+    }
+
     private void loadBooks() {
-        currentBooks = bookController.getAllBooks();
-        filterBooksByGenre(selectedGenre);
+        if (currentBooks == null) {
+            // Paint from the snapshot right away; the load below replaces it with live data
+            currentBooks = CatalogSnapshotSync.getInstance().getBooks();
+            filterBooksByGenre(selectedGenre);
+        }
+        // A newer load supersedes one still in flight
+        if (pendingBooksLoad != null) {
+            pendingBooksLoad.cancel(true);
+        }
+        CompletableFuture<List<Book>> load = asyncBookController.getAllBooks();
+        pendingBooksLoad = load;
+        load.whenComplete(AsyncExecutor.onEdt((books, error) -> {
+            if (load != pendingBooksLoad || load.isCancelled()) {
+                return;
+            }
+            pendingBooksLoad = null;
+            if (error != null) {
+                error.printStackTrace();
+                return;
+            }
+            currentBooks = books;
+            filterBooksByGenre(selectedGenre);
+        }));
     }
 
     private void filterBooksByGenre(String genre) {
-        if (booksCardsPanel == null) return;
+        if (booksCardsPanel == null || currentBooks == null) return;
 
         booksCardsPanel.removeAll();
 
@@ -767,14 +803,10 @@ public class UserDashboardView extends JFrame {
 
         // Calculate statistics
         long totalLoans = loans.size();
-        long activeLoans = loans.stream().filter(loan -> "ACTIVE".equals(loan.getStatus())).count();
-        long overdueLoans = loans.stream().filter(loan -> {
-            if ("ACTIVE".equals(loan.getStatus()) && loan.getDueDate() != null) {
-                return loan.getDueDate().isBefore(LocalDate.now());
-            }
-            return false;
-        }).count();
-        long returnedLoans = loans.stream().filter(loan -> "RETURNED".equals(loan.getStatus())).count();
+        // OverdueSweeper keeps the status column current, so no date arithmetic is needed here
+        long activeLoans = loans.stream().filter(loan -> loan.getStatus() != Loan.Status.RETURNED).count();
+        long overdueLoans = loans.stream().filter(loan -> loan.getStatus() == Loan.Status.OVERDUE).count();
+        long returnedLoans = loans.stream().filter(loan -> loan.getStatus() == Loan.Status.RETURNED).count();
 
         // Create stat cards
         statsPanel.add(createStatCard("Total Pinjaman", String.valueOf(totalLoans), PRIMARY_TEAL, "/images/icons/total-loans.png"));
@@ -851,8 +883,9 @@ public class UserDashboardView extends JFrame {
         loansGrid.setBackground(LIGHT_GRAY);
 
         // Create loan cards
+        Map<Integer, Book> books = bookController.getBooksForLoans(loans);
         for (Loan loan : loans) {
-            Book book = bookController.getBookById(loan.getBookId());
+            Book book = books.get(loan.getBookId());
             JPanel loanCard = createModernLoanCard(loan, book);
             loansGrid.add(loanCard);
             loansGrid.add(Box.createVerticalStrut(15));
@@ -944,7 +977,7 @@ public class UserDashboardView extends JFrame {
         dueDateLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
 
         // Check if overdue
-        if ("ACTIVE".equals(loan.getStatus()) && loan.getDueDate() != null && loan.getDueDate().isBefore(LocalDate.now())) {
+        if (loan.getStatus() == Loan.Status.OVERDUE) {
             dueDateLabel.setForeground(DANGER_RED);
             dueDateLabel.setText("⚠️ Terlambat: " + loan.getDueDate());
         } else {
@@ -973,7 +1006,7 @@ public class UserDashboardView extends JFrame {
         actionBtn.setAlignmentX(Component.CENTER_ALIGNMENT);
         actionBtn.setMaximumSize(new Dimension(120, 30));
 
-        if ("ACTIVE".equals(loan.getStatus())) {
+        if (loan.getStatus() == Loan.Status.ACTIVE) {
             actionBtn.setText("Perpanjang");
             actionBtn.setBackground(SECONDARY_TEAL);
             actionBtn.setForeground(WHITE);
@@ -1183,14 +1216,7 @@ public class UserDashboardView extends JFrame {
             }
 
             catalogGrid.removeAll();
-            List<Book> allBooks = bookController.getAllBooks();
-            List<Book> filteredBooks = allBooks.stream()
-                    .filter(book ->
-                            book.getTitle().toLowerCase().contains(searchQuery) ||
-                                    book.getAuthor().toLowerCase().contains(searchQuery) ||
-                                    book.getGenre().toLowerCase().contains(searchQuery)
-                    )
-                    .collect(Collectors.toList());
+            List<Book> filteredBooks = bookController.filterCatalog(searchQuery);
 
             if (filteredBooks.isEmpty()) {
                 // Tampilkan pesan tidak ada hasil
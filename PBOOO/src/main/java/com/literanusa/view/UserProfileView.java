@@ -4,8 +4,8 @@ import com.literanusa.controller.AuthController;
 import com.literanusa.controller.BookController;
 import com.literanusa.dao.LoanDAO;
 import com.literanusa.factory.DAOFactory;
-import com.literanusa.model.Book;
 import com.literanusa.model.Loan;
+import com.literanusa.model.LoanDetail;
 import com.literanusa.model.User;
 import com.literanusa.util.ImageUtils;
 import javax.swing.*;
@@ -744,22 +744,7 @@ public class UserProfileView extends JFrame {
     }
 
     private void loadLoanHistory() {
-        loanHistoryModel.setRowCount(0);
-        List<Loan> loans = loanDAO.getLoansByUserId(currentUser.getId());
-
-        for (Loan loan : loans) {
-            Book book = bookController.getBookById(loan.getBookId());
-            Object[] row = {
-                    loan.getId(),
-                    book != null ? book.getTitle() : "Unknown",
-                    book != null ? book.getAuthor() : "Unknown",
-                    loan.getLoanDate(),
-                    loan.getReturnDate() != null ? loan.getReturnDate() : "-",
-                    loan.getStatus(),
-                    "Rp 0" // You can implement fine calculation here
-            };
-            loanHistoryModel.addRow(row);
-        }
+        showLoanHistory(loanDAO.getLoanDetailsByUserId(currentUser.getId()));
     }
 
     private void filterLoanHistory(String status) {
@@ -768,23 +753,23 @@ public class UserProfileView extends JFrame {
             return;
         }
 
+        showLoanHistory(loanDAO.getLoanDetailsByUserId(currentUser.getId(), Loan.Status.valueOf(status)));
+    }
+
+    private void showLoanHistory(List<LoanDetail> details) {
         loanHistoryModel.setRowCount(0);
-        List<Loan> loans = loanDAO.getLoansByUserId(currentUser.getId());
-
-        for (Loan loan : loans) {
-            if (loan.getStatus().toString().equals(status)) {
-                Book book = bookController.getBookById(loan.getBookId());
-                Object[] row = {
-                        loan.getId(),
-                        book != null ? book.getTitle() : "Unknown",
-                        book != null ? book.getAuthor() : "Unknown",
-                        loan.getLoanDate(),
-                        loan.getReturnDate() != null ? loan.getReturnDate() : "-",
-                        loan.getStatus(),
-                        "Rp 0"
-                };
-                loanHistoryModel.addRow(row);
-            }
+        for (LoanDetail detail : details) {
+            Loan loan = detail.getLoan();
+            Object[] row = {
+                    loan.getId(),
+                    detail.getBookTitle() != null ? detail.getBookTitle() : "Unknown",
+                    detail.getBookAuthor() != null ? detail.getBookAuthor() : "Unknown",
+                    loan.getLoanDate(),
+                    loan.getReturnDate() != null ? loan.getReturnDate() : "-",
+                    loan.getStatus(),
+                    "Rp 0" // You can implement fine calculation here
+            };
+            loanHistoryModel.addRow(row);
         }
     }
 